@@ -0,0 +1,42 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/*
+ * Cost per recognized word in ScriptFollower.accept while reading a script
+ * of each size with realistic recognizer noise. Wraps to the start when the
+ * stream runs out so every invocation is a steady-state word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FollowerBench {
+    @Param({"1000", "5000", "20000"})
+    public int words;
+
+    private ScriptFollower follower;
+    private String[] stream;
+    private int i;
+
+    @Setup
+    public void setup() {
+        ScriptTokens tokens = ScriptTokens.tokenize(Scripts.text(words, 7));
+        stream = Scripts.heard(tokens, words, 11);
+        follower = new ScriptFollower();
+        follower.setTokens(tokens);
+    }
+
+    @Benchmark
+    public int accept() {
+        if (i == stream.length) {
+            i = 0;
+            follower.setPosition(0);
+        }
+        return follower.accept(stream[i++]);
+    }
+}
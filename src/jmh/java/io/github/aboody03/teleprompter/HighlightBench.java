@@ -0,0 +1,130 @@
+package io.github.aboody03.teleprompter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.Region;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+
+import org.openjdk.jmh.annotations.*;
+
+/*
+ * Moving the highlight one word forward, including the CSS and layout pass
+ * it causes. "legacy" restyles one Text node per word in a TextFlow the way
+ * the old view did, with the old highlight/near style classes; "scriptView"
+ * is ScriptView.setCurrent. Both scenes use the app stylesheet, and every
+ * operation runs on the FX thread (so both include the same runLater hop).
+ * Needs the JavaFX toolkit, so it runs only where a display (or Monocle) is
+ * available.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HighlightBench {
+    // the style classes the TextFlow view toggled, before they became pseudo-classes
+    private static final String LEGACY_CSS = """
+        .light-theme .teleprompter-highlight { -fx-fill: #e63946; -fx-font-weight: bold; }
+        .light-theme .teleprompter-near { -fx-fill: derive(#ff0000, -20%); }
+        """;
+
+    @Param({"1000", "5000", "20000"})
+    public int words;
+
+    private List<Text> nodes;
+    private Parent legacyRoot, viewRoot;
+    private ScriptView view;
+    private int idx;
+
+    @Setup
+    public void setup() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException alreadyRunning) {
+            started.countDown();
+        }
+        started.await();
+
+        ScriptTokens tokens = ScriptTokens.tokenize(Scripts.text(words, 7));
+        onFx(() -> {
+            nodes = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                Text t = new Text(tokens.word(i) + " ");
+                t.getStyleClass().add("teleprompter-word");
+                nodes.add(t);
+            }
+            legacyRoot = scene(new TextFlow(nodes.toArray(new Text[0])), true);
+
+            view = new ScriptView();
+            view.setTokens(tokens);
+            viewRoot = scene(view, false);
+            return null;
+        });
+    }
+
+    // A shown-size window around the content, styled like the app; laid out once
+    private Parent scene(Region content, boolean legacy) {
+        ScrollPane scroll = new ScrollPane(content);
+        scroll.setFitToWidth(true);
+        scroll.getStyleClass().add("light-theme");
+        Scene scene = new Scene(scroll, 800, 300);
+        scene.getStylesheets().add(HighlightBench.class.getResource("/teleprompt.css").toExternalForm());
+        if (legacy) {
+            scene.getStylesheets().add("data:text/css;base64,"
+                + Base64.getEncoder().encodeToString(LEGACY_CSS.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (content instanceof ScriptView v) v.attach(scroll);
+        scroll.applyCss();
+        scroll.layout();
+        return scroll;
+    }
+
+    private int next() {
+        return idx = idx + 1 < nodes.size() ? idx + 1 : 0;
+    }
+
+    @Benchmark
+    public int legacy() throws Exception {
+        return onFx(() -> {
+            int i = next();
+            nodes.forEach(n -> n.getStyleClass().setAll("teleprompter-word"));
+            nodes.get(i).getStyleClass().add("teleprompter-highlight");
+            if (i > 0) nodes.get(i-1).getStyleClass().add("teleprompter-near");
+            if (i + 1 < nodes.size()) nodes.get(i+1).getStyleClass().add("teleprompter-near");
+            legacyRoot.applyCss();
+            legacyRoot.layout();
+            return i;
+        });
+    }
+
+    @Benchmark
+    public int scriptView() throws Exception {
+        return onFx(() -> {
+            int i = next();
+            view.setCurrent(i);
+            viewRoot.applyCss();
+            viewRoot.layout();
+            return view.getLastHighlightNodes();
+        });
+    }
+
+    private static <T> T onFx(Callable<T> work) throws Exception {
+        FutureTask<T> task = new FutureTask<>(work);
+        Platform.runLater(task);
+        return task.get();
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Loading a script of realistic size: the regex split + per-word regex
+ * normalization the app used to run ("legacy") against ScriptTokens, plus the
+ * n-gram index built on every load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScriptBench {
+    @Param({"1000", "5000", "20000"})
+    public int words;
+
+    private String text;
+    private String[] raw;
+    private ScriptTokens tokens;
+
+    @Setup
+    public void setup() {
+        text = Scripts.text(words, 7);
+        raw = text.split("[—\\-\\s]+");
+        tokens = ScriptTokens.tokenize(text);
+    }
+
+    @Setup(Level.Trial)
+    public void checkIndex() {
+        // every bigram and trigram is found again, and nearest() agrees with a scan from a spread of positions
+        ScriptTokens t = ScriptTokens.tokenize(Scripts.text(words, 7));
+        NgramIndex index = NgramIndex.build(t);
+        int[] terms = new int[t.size()];
+        for (int i = 0; i < terms.length; i++) terms[i] = index.termOf(t.norm(i), t.group(i));
+        Random r = new Random(7);
+        for (int i = 1; i < terms.length; i++) {
+            for (int a : i >= 2 ? new int[] {-1, terms[i-2]} : new int[] {-1}) {
+                int b = terms[i-1], c = terms[i];
+                if (index.count(a, b, c, 1) != 1) {
+                    throw new IllegalStateException((a < 0 ? "bigram" : "trigram")+" ending at "+i+" not found");
+                }
+                int from = r.nextInt(terms.length), expected = scanNearest(terms, a, b, c, from);
+                if (index.nearest(a, b, c, from) != expected) {
+                    throw new IllegalStateException("nearest("+a+", "+b+", "+c+", "+from+") != "+expected);
+                }
+            }
+        }
+    }
+
+    private static int scanNearest(int[] terms, int a, int b, int c, int from) {
+        int best = -1;
+        for (int p = 1; p < terms.length; p++) {
+            if (p == from || terms[p] != c || terms[p-1] != b || (a >= 0 && (p < 2 || terms[p-2] != a))) continue;
+            if (best < 0 || Math.abs(p - from) < Math.abs(best - from)) best = p;
+        }
+        return best;
+    }
+
+    @Benchmark
+    public String[] tokenizeLegacy() {
+        String[] split = text.split("[—\\-\\s]+");
+        String[] norm = new String[split.length];
+        for (int i = 0; i < split.length; i++) norm[i] = split[i].replaceAll("[\\W—]+$","").toLowerCase();
+        return norm;
+    }
+
+    @Benchmark
+    public ScriptTokens tokenize() {
+        return ScriptTokens.tokenize(text);
+    }
+
+    @Benchmark
+    public void normalizeLegacy(Blackhole bh) {
+        for (String w : raw) bh.consume(w.replaceAll("\\W+$","").toLowerCase(Locale.ROOT));
+    }
+
+    @Benchmark
+    public void normalize(Blackhole bh) {
+        for (String w : raw) bh.consume(ScriptTokens.normalize(w));
+    }
+
+    @Benchmark
+    public NgramIndex ngramIndex() {
+        return NgramIndex.build(tokens);
+    }
+}
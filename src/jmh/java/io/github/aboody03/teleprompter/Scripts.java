@@ -0,0 +1,50 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.Random;
+
+// Synthetic scripts and recognizer output shared by the benchmarks
+final class Scripts {
+    private static final String[] VOCAB = {
+        "the","their","there","we","will","talk","about","future","company","partners",
+        "support","quarter","numbers","review","announce","products","market","forever",
+        "tonight","welcome","keynote","annual","everyone","evening","finally","strong",
+        "growth","customers","team","launch","year","record","thank","you","for","being",
+        "here","our","new","platform","and","to","of","a","in","is","it","that","with","on"
+    };
+    private static final String[] PUNCT = {"", "", "", "", "", ",", ".", "!", "?", "—"};
+
+    private Scripts() {}
+
+    // Prose-like text: capitalized sentence starts, trailing punctuation, the odd dash
+    static String text(int words, long seed) {
+        Random r = new Random(seed);
+        StringBuilder sb = new StringBuilder(words * 8);
+        boolean start = true;
+        for (int i = 0; i < words; i++) {
+            String w = VOCAB[r.nextInt(VOCAB.length)];
+            if (start) w = Character.toUpperCase(w.charAt(0)) + w.substring(1);
+            String p = PUNCT[r.nextInt(PUNCT.length)];
+            start = p.equals(".") || p.equals("!") || p.equals("?");
+            sb.append(w).append(p);
+            sb.append(i % 14 == 13 ? '\n' : ' ');
+        }
+        return sb.toString();
+    }
+
+    /*
+     * What a recognizer hears reading the script from the start: lowercase,
+     * no punctuation, with ~8% substituted, ~4% skipped and ~4% inserted words.
+     */
+    static String[] heard(ScriptTokens script, int count, long seed) {
+        Random r = new Random(seed);
+        String[] out = new String[count];
+        int k = 0;
+        for (int i = 0; k < count; i = (i + 1) % script.size()) {
+            int roll = r.nextInt(100);
+            if (roll < 4) continue;
+            if (roll < 8 && k < count) out[k++] = VOCAB[r.nextInt(VOCAB.length)];
+            if (k < count) out[k++] = roll < 16 ? VOCAB[r.nextInt(VOCAB.length)] : script.norm(i);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Heard-vs-expected word checks as the follower issues them: mostly
+ * mismatches of similar length, some exact hits and near misses.
+ * "legacy" is the old full-matrix Levenshtein kept here as the baseline.
+ * Each trial first checks withinOneEdit against it on 2M random pairs and
+ * refuses to run if they ever disagree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WordsMatchBench {
+    private static final String[] VOCAB = {
+        "the","their","there","we","will","talk","about","future","company","partners",
+        "support","quarter","numbers","review","announce","products","market","forever",
+        "tonight","welcome","keynote","annual","everyone","evening","finally","strong"
+    };
+
+    private static final int EQUIVALENCE_PAIRS = 2_000_000;
+
+    private String[] heard, expect;
+    private int i;
+
+    @Setup(Level.Trial)
+    public void checkEquivalence() {
+        // short words over a tiny alphabet, half of them one random edit apart, so every branch is hit
+        Random r = new Random(7);
+        for (int k = 0; k < EQUIVALENCE_PAIRS; k++) {
+            String a = randomWord(r);
+            String b = r.nextBoolean() ? randomWord(r) : mutate(a, r);
+            boolean expected = legacyLevenshtein(a, b) <= 1;
+            if (HomophoneUtils.withinOneEdit(a, b) != expected) {
+                throw new IllegalStateException("withinOneEdit(\""+a+"\", \""+b+"\") != "+expected);
+            }
+        }
+    }
+
+    private static String randomWord(Random r) {
+        char[] w = new char[r.nextInt(7)];
+        for (int k = 0; k < w.length; k++) w[k] = "abc'".charAt(r.nextInt(4));
+        return new String(w);
+    }
+
+    private static String mutate(String w, Random r) {
+        StringBuilder sb = new StringBuilder(w);
+        int at = r.nextInt(w.length() + 1);
+        switch (r.nextInt(4)) {
+            case 0 -> sb.insert(at, "abc".charAt(r.nextInt(3)));
+            case 1 -> { if (at < sb.length()) sb.deleteCharAt(at); }
+            case 2 -> { if (at < sb.length()) sb.setCharAt(at, "abc".charAt(r.nextInt(3))); }
+            default -> {
+                // a transposition is two edits; the check has to say no
+                if (at + 1 < sb.length()) {
+                    char t = sb.charAt(at);
+                    sb.setCharAt(at, sb.charAt(at + 1));
+                    sb.setCharAt(at + 1, t);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    @Setup
+    public void setup() {
+        Random r = new Random(42);
+        heard = new String[4096];
+        expect = new String[4096];
+        for (int k = 0; k < heard.length; k++) {
+            String w = VOCAB[r.nextInt(VOCAB.length)];
+            heard[k] = r.nextInt(4) == 0 ? w.substring(1) : new String(w);
+            expect[k] = VOCAB[r.nextInt(VOCAB.length)];
+        }
+    }
+
+    private int next() { return i = (i + 1) & (heard.length - 1); }
+
+    @Benchmark
+    public boolean legacy() {
+        int k = next();
+        return legacyLevenshtein(heard[k], expect[k]) <= 1;
+    }
+
+    @Benchmark
+    public boolean withinOneEdit() {
+        int k = next();
+        return HomophoneUtils.withinOneEdit(heard[k], expect[k]);
+    }
+
+    @Benchmark
+    public boolean wordsMatch() {
+        int k = next();
+        return HomophoneUtils.wordsMatch(heard[k], expect[k]);
+    }
+
+    @Benchmark
+    public void wordsMatchWindow(Blackhole bh) {
+        // one heard word against a follower-sized window of expected words
+        String h = heard[next()];
+        for (int k = 0; k < 64; k++) bh.consume(HomophoneUtils.wordsMatch(h, expect[k]));
+    }
+
+    private static int legacyLevenshtein(String a, String b) {
+        int n = a.length(), m = b.length();
+        int[] prev = new int[m+1], curr = new int[m+1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= n; i++) {
+            curr[0] = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i-1) == b.charAt(j-1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(prev[j] + 1, curr[j-1] + 1), prev[j-1] + cost);
+            }
+            System.arraycopy(curr, 0, prev, 0, m+1);
+        }
+        return prev[m];
+    }
+}
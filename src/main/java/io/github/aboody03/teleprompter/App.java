@@ -13,6 +13,17 @@ package io.github.aboody03.teleprompter;
 
 public class App {
     public static void main(String[] args) {
+        // Headless: feed recorded audio through recognition and following, no window
+        if (java.util.Arrays.asList(args).contains("--replay")) {
+            System.exit(ReplayRunner.run(args));
+        }
+        if (java.util.Arrays.asList(args).contains("--sync-selftest")) {
+            System.exit(SyncSelfTest.run(args));
+        }
+        if (java.util.Arrays.asList(args).contains("--journal-report")) {
+            System.exit(JournalReport.run(args));
+        }
+        StartupReport.begin("window shown", "speech ready");
         PromptMeApp.launch(PromptMeApp.class, args);
     }
 }
@@ -0,0 +1,68 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Preallocated single-producer/single-consumer ring of audio chunks. The
+ * capture thread fills the slot at the tail in place and publishes it; the
+ * recognizer reads the slot at the head and releases it. Nothing is copied or
+ * allocated per chunk, and a full ring drops the new chunk (counted as an
+ * overrun) rather than stalling the microphone.
+ */
+public class AudioRing {
+    private final byte[][] chunks;
+    private final int[] lengths;
+    private final long[] captured;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(), tail = new AtomicLong();
+    private volatile long overruns;
+
+    public AudioRing(int slots, int chunkBytes) {
+        int cap = Integer.highestOneBit(Math.max(2, slots - 1)) << 1;
+        chunks = new byte[cap][chunkBytes];
+        lengths = new int[cap];
+        captured = new long[cap];
+        mask = cap - 1;
+    }
+
+    // Producer: buffer to fill, or null when the consumer is a full ring behind
+    public byte[] claim() {
+        long t = tail.get();
+        if (t - head.get() >= chunks.length) {
+            overruns++;
+            return null;
+        }
+        return chunks[(int) t & mask];
+    }
+
+    public void publish(int length, long captureNanos) {
+        long t = tail.get();
+        lengths[(int) t & mask] = length;
+        captured[(int) t & mask] = captureNanos;
+        tail.lazySet(t + 1);
+    }
+
+    // Consumer: slot index of the oldest chunk, or -1 when empty
+    public int peek() {
+        long h = head.get();
+        return h < tail.get() ? (int) h & mask : -1;
+    }
+
+    public byte[] chunk(int slot) { return chunks[slot]; }
+
+    public int length(int slot) { return lengths[slot]; }
+
+    public long capturedAt(int slot) { return captured[slot]; }
+
+    public void release() {
+        head.lazySet(head.get() + 1);
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() { return chunks.length; }
+
+    public long getOverruns() { return overruns; }
+}
@@ -0,0 +1,41 @@
+package io.github.aboody03.teleprompter;
+
+/*
+ * Capture tuning, read from system properties so it can be adjusted per machine:
+ *   promptme.audio.lowLatency   10 ms chunks and a short line buffer
+ *   promptme.audio.chunkMs      audio handed to Vosk per step (default 32, or 10 in low-latency mode)
+ *   promptme.audio.lineBufferMs TargetDataLine buffer, 0 = driver default (4 chunks in low-latency mode)
+ *   promptme.audio.rate         force a capture rate; 0 tries 16 kHz, then common native rates
+ *   promptme.audio.vad          RMS level below which audio is not fed to Vosk, 0 = off
+ *   promptme.audio.vadHangMs    silence still fed after speech so Vosk can finalize (default 400)
+ */
+public record AudioSettings(int chunkMs, int lineBufferMs, int captureRate, int vadThreshold, int vadHangMs) {
+    public static final int VOSK_RATE = 16000;
+
+    public static AudioSettings fromSystemProperties() {
+        boolean low = Boolean.getBoolean("promptme.audio.lowLatency");
+        int chunkMs = Integer.getInteger("promptme.audio.chunkMs", low ? 10 : 32);
+        int lineMs = Integer.getInteger("promptme.audio.lineBufferMs", low ? 4 * chunkMs : 0);
+        return new AudioSettings(Math.max(5, chunkMs), Math.max(0, lineMs),
+            Integer.getInteger("promptme.audio.rate", 0),
+            Integer.getInteger("promptme.audio.vad", 0),
+            Integer.getInteger("promptme.audio.vadHangMs", 400));
+    }
+
+    // 16-bit mono bytes per chunk at the given rate
+    public int chunkBytes(int rate, int channels) {
+        return rate * chunkMs / 1000 * 2 * channels;
+    }
+
+    // Enough ring slots for about two seconds of audio
+    public int ringSlots() {
+        return Math.max(8, 2000 / chunkMs);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d ms chunks, line buffer %s, VAD %s", chunkMs,
+            lineBufferMs == 0 ? "default" : lineBufferMs + " ms",
+            vadThreshold == 0 ? "off" : "rms>=" + vadThreshold + " hang " + vadHangMs + " ms");
+    }
+}
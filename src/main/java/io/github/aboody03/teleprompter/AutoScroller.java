@@ -0,0 +1,159 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.function.IntConsumer;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.ScrollPane;
+
+/*
+ * Scrolls the script continuously instead of jumping on every match. The
+ * viewport follows a fractional word position that advances at the
+ * speaker's estimated rate (from recent matched-word timestamps) and is
+ * pulled gently toward where the last match says the speaker should be by
+ * now. Without matches the position coasts a few words and stops. Fixed
+ * mode advances at a set words-per-minute with no microphone and reports
+ * each new word through onAdvance; the app turns the mic off for it, and
+ * matches are ignored while it runs.
+ *
+ * The timer only runs while something moves, and a frame does arithmetic
+ * and at most one setVvalue: no allocation.
+ */
+public class AutoScroller {
+    private static final int RING = 16;
+    private static final long RATE_WINDOW_NANOS = 8_000_000_000L;
+    private static final long COAST_NANOS = 2_500_000_000L;  // stop extrapolating after this long without a match
+    private static final double MAX_LEAD = 3;                // words the viewport may run past the last match
+    private static final double GAIN = 2.5;                 // per second, pull toward the expected position
+    private static final double MAX_RATE = 8;                // words per second
+    private static final int SNAP_WORDS = 40;                // farther jumps snap instead of gliding
+
+    private final ScrollPane scroll;
+    private final ScriptView view;
+    private final long[] matchTime = new long[RING];
+    private final int[] matchIdx = new int[RING];
+    private int matches;
+
+    private double pos, wordsPerSec, lastV = -1;
+    private int target;
+    private long lastMatch, lastFrame;
+    private boolean running, fixed;
+    private double fixedWpm = 140;
+    private IntConsumer onAdvance = idx -> {};
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            step(now);
+        }
+    };
+
+    public AutoScroller(ScrollPane scroll, ScriptView view) {
+        this.scroll = scroll;
+        this.view = view;
+    }
+
+    public void setOnAdvance(IntConsumer handler) { onAdvance = handler; }
+
+    // A recognized word landed on idx
+    public void matched(int idx) {
+        if (fixed) return;
+        long now = System.nanoTime();
+        if (Math.abs(idx - pos) > SNAP_WORDS || idx < target) {
+            jumpTo(idx);
+            return;
+        }
+        matchTime[matches % RING] = now;
+        matchIdx[matches % RING] = idx;
+        matches++;
+        target = idx;
+        lastMatch = now;
+        estimateRate(now);
+        start();
+    }
+
+    // Click, spacebar, new script: move there now and forget the speaking rate
+    public void jumpTo(int idx) {
+        pos = target = idx;
+        matches = 0;
+        wordsPerSec = 0;
+        lastV = -1;
+        apply();
+        if (fixed) start();
+    }
+
+    public void setFixed(boolean on) {
+        fixed = on;
+        matches = 0;
+        if (on) start(); else stopTimer();
+    }
+
+    public void setFixedWpm(double wpm) { fixedWpm = Math.max(1, wpm); }
+
+    // Current estimate in words per minute (the set rate in fixed mode)
+    public double getWpm() { return fixed ? fixedWpm : wordsPerSec * 60; }
+
+    private void estimateRate(long now) {
+        int n = Math.min(matches, RING);
+        int newest = (matches - 1) % RING;
+        int oldest = -1;
+        for (int k = n - 1; k >= 1; k--) {
+            int slot = (matches - 1 - k) % RING;
+            if (now - matchTime[slot] <= RATE_WINDOW_NANOS) { oldest = slot; break; }
+        }
+        if (oldest < 0) return;
+        double secs = (matchTime[newest] - matchTime[oldest]) / 1e9;
+        if (secs < 0.5) return;
+        double rate = Math.max(0, Math.min(MAX_RATE, (matchIdx[newest] - matchIdx[oldest]) / secs));
+        wordsPerSec = wordsPerSec == 0 ? rate : wordsPerSec + 0.3 * (rate - wordsPerSec);
+    }
+
+    private void start() {
+        if (running) return;
+        running = true;
+        lastFrame = 0;
+        lastV = -1;
+        timer.start();
+    }
+
+    private void stopTimer() {
+        running = false;
+        timer.stop();
+    }
+
+    private void step(long now) {
+        double dt = lastFrame == 0 ? 0 : Math.min(0.1, (now - lastFrame) / 1e9);
+        lastFrame = now;
+        int last = view.wordCount() - 1;
+        if (last < 0) {
+            stopTimer();
+            return;
+        }
+
+        if (fixed) {
+            pos = Math.min(last, pos + fixedWpm / 60 * dt);
+            int word = (int) pos;
+            if (word != target) {
+                target = word;
+                onAdvance.accept(word);
+            }
+            if (pos >= last) stopTimer();
+        } else {
+            long since = now - lastMatch;
+            double rate = since < COAST_NANOS ? wordsPerSec : 0;
+            double expected = Math.min(target + MAX_LEAD, target + wordsPerSec * Math.min(since, COAST_NANOS) / 1e9);
+            if (pos >= expected) rate = 0;
+            pos += rate * dt + (expected - pos) * Math.min(1, GAIN * dt);
+            pos = Math.max(0, Math.min(last, pos));
+            if (rate == 0 && Math.abs(expected - pos) < 0.01) stopTimer();
+        }
+        apply();
+    }
+
+    private void apply() {
+        double v = view.smoothScrollFraction(pos, scroll.getViewportBounds().getHeight());
+        if (Math.abs(v - lastV) > 1e-5) {
+            lastV = v;
+            scroll.setVvalue(v);
+        }
+    }
+}
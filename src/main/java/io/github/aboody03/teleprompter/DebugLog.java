@@ -0,0 +1,21 @@
+package io.github.aboody03.teleprompter;
+
+/*
+ * Diagnostic reports (startup phases, import and index timings, speech, sync
+ * and playlist statistics) go to stdout only with -Dpromptme.debug=true, so a
+ * normal run prints nothing but errors. The command-line tools (replay,
+ * journal report, sync self-test) print their results directly.
+ */
+final class DebugLog {
+    static final boolean ENABLED = Boolean.getBoolean("promptme.debug");
+
+    private DebugLog() {}
+
+    static void println(String line) {
+        if (ENABLED) System.out.println(line);
+    }
+
+    static void printf(String format, Object... args) {
+        if (ENABLED) System.out.printf(format, args);
+    }
+}
@@ -5,4 +5,7 @@ public class DragData {
     double stageX, stageY;
     double stageW, stageH;
     boolean dragEnabled;
+    // latest requested bounds, applied once per pulse
+    double targetX, targetY, targetW, targetH;
+    boolean pending, resizing;
 }
@@ -0,0 +1,4 @@
+package io.github.aboody03.teleprompter;
+
+// A recognized word with the capture time of the audio that completed it and when the decoder emitted it
+public record HeardWord(String text, long capturedNanos, long emittedNanos) {}
@@ -0,0 +1,204 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/*
+ * Homophone groups in sorted arrays instead of a map of copied sibling sets.
+ * Every word is stored once; words[i] belongs to the dictionary lines
+ * lineIds[lineStart[i]..lineStart[i+1]) and two words are homophones when they
+ * share a line. Words connected through any line share a group id, which lets
+ * callers reject unrelated pairs with an int compare. A group's id is its
+ * lowest line id, so appending custom lines after the built-in ones never
+ * renumbers a built-in group that tokenized scripts already hold.
+ *
+ * The build precompiles homophones.txt into homophones.bin (see main), which
+ * loads with a single read.
+ */
+public final class HomophoneDictionary {
+    private static final int MAGIC = 0x484F4D32; // "HOM2", group ids are root line ids
+
+    private final String[] words;
+    private final int[] group;
+    private final int[] lineStart;
+    private final int[] lineIds;
+    // group of each line id, so an id a custom line merged away still resolves
+    private final int[] root;
+
+    private HomophoneDictionary(String[] words, int[] group, int[] lineStart, int[] lineIds) {
+        this.words = words;
+        this.group = group;
+        this.lineStart = lineStart;
+        this.lineIds = lineIds;
+        int lines = 0;
+        for (int id : lineIds) lines = Math.max(lines, id + 1);
+        root = new int[lines];
+        for (int i = 0; i < words.length; i++) {
+            for (int k = lineStart[i]; k < lineStart[i+1]; k++) root[lineIds[k]] = group[i];
+        }
+    }
+
+    public static HomophoneDictionary empty() {
+        return new HomophoneDictionary(new String[0], new int[0], new int[1], new int[0]);
+    }
+
+    // Comma-separated groups, one per line; '#' starts a comment line
+    public static HomophoneDictionary parse(List<Reader> sources) throws IOException {
+        TreeMap<String, List<Integer>> lines = new TreeMap<>();
+        int lineNo = 0;
+        for (Reader src : sources) {
+            BufferedReader reader = new BufferedReader(src);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                int id = lineNo++;
+                for (String w : line.split(",")) {
+                    w = w.trim().toLowerCase(Locale.ROOT);
+                    if (w.isEmpty()) continue;
+                    List<Integer> ids = lines.computeIfAbsent(w, k -> new ArrayList<>(1));
+                    if (ids.isEmpty() || ids.get(ids.size()-1) != id) ids.add(id);
+                }
+            }
+        }
+
+        int n = lines.size();
+        String[] words = lines.keySet().toArray(new String[0]);
+        int[] lineStart = new int[n + 1];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            lineStart[i] = total;
+            total += lines.get(words[i]).size();
+        }
+        lineStart[n] = total;
+        int[] lineIds = new int[total];
+        for (int i = 0; i < n; i++) {
+            List<Integer> ids = lines.get(words[i]);
+            for (int k = 0; k < ids.size(); k++) lineIds[lineStart[i] + k] = ids.get(k);
+        }
+        return new HomophoneDictionary(words, groups(lineStart, lineIds, lineNo), lineStart, lineIds);
+    }
+
+    // Union-find over dictionary lines; a word's group is its first line's root, the component's lowest line id
+    private static int[] groups(int[] lineStart, int[] lineIds, int lineCount) {
+        int[] parent = new int[lineCount];
+        for (int i = 0; i < lineCount; i++) parent[i] = i;
+        int n = lineStart.length - 1;
+        for (int i = 0; i < n; i++) {
+            for (int k = lineStart[i] + 1; k < lineStart[i+1]; k++) {
+                int a = find(parent, lineIds[lineStart[i]]), b = find(parent, lineIds[k]);
+                if (a != b) parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+        int[] group = new int[n];
+        for (int i = 0; i < n; i++) group[i] = find(parent, lineIds[lineStart[i]]);
+        return group;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) x = parent[x] = parent[parent[x]];
+        return x;
+    }
+
+    public int size() { return words.length; }
+
+    public String word(int i) { return words[i]; }
+
+    public int groupAt(int i) { return group[i]; }
+
+    public int groupOf(String word) {
+        int i = Arrays.binarySearch(words, word);
+        return i < 0 ? -1 : group[i];
+    }
+
+    /*
+     * True when both ids name the same group. Ids from an earlier dictionary
+     * stay valid as long as it was a prefix of this one (built-in, then
+     * custom lines): if a custom line joined two built-in groups, the old
+     * id of the absorbed one resolves to the merged group.
+     */
+    public boolean sameGroup(int a, int b) {
+        if (a < 0 || b < 0) return false;
+        if (a == b) return true;
+        return a < root.length && b < root.length && root[a] == root[b];
+    }
+
+    // Current group of an id handed out by this or an earlier (prefix) dictionary
+    public int rootOf(int group) {
+        return group >= 0 && group < root.length ? root[group] : group;
+    }
+
+    public boolean areHomophones(String a, String b) {
+        int i = Arrays.binarySearch(words, a);
+        if (i < 0) return false;
+        int j = Arrays.binarySearch(words, b);
+        if (j < 0 || i == j) return false;
+        int p = lineStart[i], pe = lineStart[i+1], q = lineStart[j], qe = lineStart[j+1];
+        while (p < pe && q < qe) {
+            if (lineIds[p] == lineIds[q]) return true;
+            if (lineIds[p] < lineIds[q]) p++; else q++;
+        }
+        return false;
+    }
+
+    public byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(words.length);
+            out.writeInt(lineIds.length);
+            for (String w : words) {
+                byte[] utf = w.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(utf.length);
+                out.write(utf);
+            }
+            for (int g : group) out.writeInt(g);
+            for (int s : lineStart) out.writeInt(s);
+            for (int id : lineIds) out.writeInt(id);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static HomophoneDictionary fromBytes(byte[] data) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        if (in.getInt() != MAGIC) throw new IOException("Not a homophone dictionary");
+        int n = in.getInt(), total = in.getInt();
+        String[] words = new String[n];
+        for (int i = 0; i < n; i++) {
+            int len = in.getShort() & 0xFFFF;
+            words[i] = new String(data, in.position(), len, StandardCharsets.UTF_8);
+            in.position(in.position() + len);
+        }
+        int[] group = new int[n], lineStart = new int[n + 1], lineIds = new int[total];
+        in.asIntBuffer().get(group);
+        in.position(in.position() + 4 * n);
+        in.asIntBuffer().get(lineStart);
+        in.position(in.position() + 4 * (n + 1));
+        in.asIntBuffer().get(lineIds);
+        return new HomophoneDictionary(words, group, lineStart, lineIds);
+    }
+
+    // Build step: precompile the text dictionary, args = <homophones.txt> <homophones.bin>
+    public static void main(String[] args) throws IOException {
+        Path src = Path.of(args[0]), dst = Path.of(args[1]);
+        HomophoneDictionary dict;
+        try (Reader r = Files.newBufferedReader(src, StandardCharsets.UTF_8)) {
+            dict = parse(List.of(r));
+        }
+        Files.createDirectories(dst.toAbsolutePath().getParent());
+        Files.write(dst, dict.toBytes());
+        System.out.printf("Homophones: %d words -> %s%n", dict.size(), dst);
+    }
+}
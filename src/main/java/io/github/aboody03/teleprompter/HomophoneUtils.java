@@ -1,60 +1,174 @@
 package io.github.aboody03.teleprompter;
 
-import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
-import java.util.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class HomophoneUtils {
-    private static final Map<String, Set<String>> HOMOPHONES = loadHomophones();
-
-    private static Map<String, Set<String>> loadHomophones() {
-        Map<String, Set<String>> map = new HashMap<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-                HomophoneUtils.class.getResourceAsStream("/homophones.txt"),
-                StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("#")) continue;
-                String[] group = line.split(",");
-                for (String w : group) {
-                    String key = w.trim().toLowerCase();
-                    map.computeIfAbsent(key, k -> new HashSet<>());
-                    for (String sib : group) {
-                        sib = sib.trim().toLowerCase();
-                        if (!sib.equals(key)) {
-                            map.get(key).add(sib);
-                        }
-                    }
-                }
+    // Extra dictionaries: -Dpromptme.homophones=a.txt;b.txt, plus ~/.promptme/homophones.txt if present
+    private static final String CUSTOM_PROPERTY = "promptme.homophones";
+    private static final Path USER_FILE = Path.of(System.getProperty("user.home"), ".promptme", "homophones.txt");
+
+    // Merged with custom files once preload() has read them; null until then
+    private static volatile HomophoneDictionary custom;
+
+    // Initialization-on-demand: the first caller (normally the loader thread) pays for the load
+    private static final class BuiltIn {
+        static final HomophoneDictionary DICT = loadBuiltIn();
+    }
+
+    private static HomophoneDictionary loadBuiltIn() {
+        long t0 = System.nanoTime();
+        try (InputStream bin = HomophoneUtils.class.getResourceAsStream("/homophones.bin")) {
+            if (bin != null) {
+                HomophoneDictionary d = HomophoneDictionary.fromBytes(bin.readAllBytes());
+                DebugLog.printf("Homophones: %d words from homophones.bin in %.2f ms%n",
+                    d.size(), (System.nanoTime() - t0) / 1e6);
+                return d;
             }
+        } catch (IOException e) {
+            System.err.println("Failed to load homophones.bin, falling back to homophones.txt");
+            e.printStackTrace();
+        }
+        try {
+            return HomophoneDictionary.parse(List.of(builtInText()));
         } catch (Exception e) {
             System.err.println("Failed to load homophones.txt");
             e.printStackTrace();
+            return HomophoneDictionary.empty();
+        }
+    }
+
+    private static Reader builtInText() {
+        return new InputStreamReader(HomophoneUtils.class.getResourceAsStream("/homophones.txt"), StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Loads the dictionary (and any custom ones) on a daemon thread so the first
+     * recognized word doesn't pay for it. Custom files are merged with the text
+     * dictionary and swapped in when ready; matching uses the built-in groups
+     * until then. Custom lines come after the built-in ones, so group ids
+     * already held by tokenized scripts keep their meaning across the swap.
+     */
+    public static void preload() {
+        Thread t = new Thread(() -> {
+            dictionary();
+            List<Path> files = customFiles();
+            if (files.isEmpty()) return;
+            try {
+                useCustom(files);
+            } catch (IOException e) {
+                System.err.println("Failed to load custom homophones: "+files);
+                e.printStackTrace();
+            }
+        }, "Homophone-Loader");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public static void useCustom(List<Path> files) throws IOException {
+        long t0 = System.nanoTime();
+        List<Reader> sources = new ArrayList<>();
+        sources.add(builtInText());
+        try {
+            for (Path p : files) sources.add(Files.newBufferedReader(p, StandardCharsets.UTF_8));
+            HomophoneDictionary merged = HomophoneDictionary.parse(sources);
+            custom = merged;
+            cacheEpoch++;
+            DebugLog.printf("Homophones: %d words incl. %s in %.2f ms%n",
+                merged.size(), files, (System.nanoTime() - t0) / 1e6);
+        } finally {
+            for (Reader r : sources) r.close();
+        }
+    }
+
+    private static List<Path> customFiles() {
+        List<Path> files = new ArrayList<>();
+        String prop = System.getProperty(CUSTOM_PROPERTY, "");
+        for (String p : prop.split(File.pathSeparator)) {
+            if (!p.isBlank()) files.add(Path.of(p.trim()));
         }
-        return map;
+        if (Files.isRegularFile(USER_FILE)) files.add(USER_FILE);
+        return files;
+    }
+
+    static HomophoneDictionary dictionary() {
+        HomophoneDictionary d = custom;
+        return d != null ? d : BuiltIn.DICT;
+    }
+
+    public static int groupOf(String word) {
+        return dictionary().groupOf(word);
     }
 
     public static boolean wordsMatch(String heard, String expect) {
+        return wordsMatch(heard, groupOf(heard), expect, groupOf(expect));
+    }
+
+    // Group ids are precomputed by callers, so unrelated words skip the dictionary lookup
+    public static boolean wordsMatch(String heard, int heardGroup, String expect, int expectGroup) {
         if (heard.equals(expect)) return true;
-        Set<String> alts = HOMOPHONES.get(heard);
-        if (alts != null && alts.contains(expect)) return true;
-        return levenshtein(heard, expect) <= 1;
+        int slot = (heard.hashCode() * 31 + expect.hashCode()) & (CACHE_SIZE - 1);
+        VerdictCache c = CACHE.get();
+        if (c.epoch != cacheEpoch) c.clear();
+        if (heard.equals(c.heard[slot]) && expect.equals(c.expect[slot])) return c.match[slot];
+
+        HomophoneDictionary dict = dictionary();
+        boolean match = dict.sameGroup(heardGroup, expectGroup) && dict.areHomophones(heard, expect);
+        if (!match) match = withinOneEdit(heard, expect);
+        c.heard[slot] = heard;
+        c.expect[slot] = expect;
+        c.match[slot] = match;
+        return match;
     }
 
-    private static int levenshtein(String a, String b) {
+    /*
+     * Same answer as levenshtein(a, b) <= 1 without the O(n*m) table: lengths
+     * more than one apart can't match, otherwise walk the single diagonal band
+     * and give up at the second difference.
+     */
+    static boolean withinOneEdit(String a, String b) {
         int n = a.length(), m = b.length();
-        int[] prev = new int[m+1], curr = new int[m+1];
-        for (int j = 0; j <= m; j++) prev[j] = j;
-        for (int i = 1; i <= n; i++) {
-            curr[0] = i;
-            for (int j = 1; j <= m; j++) {
-                int cost = a.charAt(i-1) == b.charAt(j-1) ? 0 : 1;
-                curr[j] = Math.min(Math.min(prev[j] + 1, curr[j-1] + 1), prev[j-1] + cost);
-            }
-            System.arraycopy(curr, 0, prev, 0, m+1);
+        if (n < m) { String t = a; a = b; b = t; int l = n; n = m; m = l; }
+        if (n - m > 1) return false;
+        int i = 0;
+        while (i < m && a.charAt(i) == b.charAt(i)) i++;
+        if (i == m) return true;
+        if (n == m) i++;
+        // after the one allowed edit the tails must be identical
+        for (int j = i; j < m; j++) {
+            if (a.charAt(n == m ? j : j + 1) != b.charAt(j)) return false;
+        }
+        return true;
+    }
+
+    /*
+     * Direct-mapped cache of recent verdicts in preallocated parallel arrays,
+     * one per thread so an entry is never read half-written. A dictionary swap
+     * bumps the epoch, which clears each thread's cache on its next lookup.
+     */
+    private static final int CACHE_SIZE = 1024;
+    private static volatile int cacheEpoch;
+    private static final ThreadLocal<VerdictCache> CACHE = ThreadLocal.withInitial(VerdictCache::new);
+
+    private static final class VerdictCache {
+        final String[] heard = new String[CACHE_SIZE];
+        final String[] expect = new String[CACHE_SIZE];
+        final boolean[] match = new boolean[CACHE_SIZE];
+        int epoch = cacheEpoch;
+
+        void clear() {
+            Arrays.fill(heard, null);
+            Arrays.fill(expect, null);
+            epoch = cacheEpoch;
         }
-        return prev[m];
     }
 }
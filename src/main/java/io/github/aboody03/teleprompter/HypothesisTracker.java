@@ -0,0 +1,56 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.function.Consumer;
+
+/*
+ * Diffs successive Vosk partial hypotheses so each word reaches the matcher once.
+ * A word is emitted when it (and everything before it) survived unchanged into
+ * the next partial; the final result flushes whatever the partials never settled.
+ */
+public class HypothesisTracker {
+    private static final String[] NONE = new String[0];
+
+    private String[] prev = NONE;
+    private int emitted;
+    private long rawWords, emittedWords;
+
+    public void acceptPartial(String text, Consumer<String> out) {
+        String[] words = split(text);
+        rawWords += words.length;
+        int stable = 0;
+        int max = Math.min(words.length, prev.length);
+        while (stable < max && words[stable].equals(prev[stable])) stable++;
+        emit(words, stable, out);
+        prev = words;
+    }
+
+    public void acceptFinal(String text, Consumer<String> out) {
+        String[] words = split(text);
+        rawWords += words.length;
+        emit(words, words.length, out);
+        reset();
+    }
+
+    // Forget the current utterance; counters are kept for the session
+    public void reset() {
+        prev = NONE;
+        emitted = 0;
+    }
+
+    public long getRawWords() { return rawWords; }
+
+    public long getEmittedWords() { return emittedWords; }
+
+    private void emit(String[] words, int upTo, Consumer<String> out) {
+        for (int i = emitted; i < upTo; i++) {
+            out.accept(words[i]);
+            emittedWords++;
+        }
+        if (upTo > emitted) emitted = upTo;
+    }
+
+    private static String[] split(String text) {
+        text = text.trim();
+        return text.isEmpty() ? NONE : text.split(" ");
+    }
+}
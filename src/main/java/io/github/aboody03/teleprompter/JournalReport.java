@@ -0,0 +1,232 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * Offline reader for SessionJournal files. Prints where time went (capture to
+ * decoded word, capture to highlight), how well the follower kept up (match
+ * rate, jumps, backward moves), the places an operator had to step in (a
+ * click or key press shortly after speech had moved the highlight) and
+ * stretches where the talent was speaking but the highlight did not move.
+ *
+ *   App --journal-report <session.pjl> [--timeline]
+ *
+ * --timeline also prints every record as a tab-separated line. Journals cut
+ * short by a crash read up to the last complete record.
+ */
+public final class JournalReport {
+    private static final String[] TYPES = {"?", "audio", "partial", "final", "word", "match", "highlight", "scroll", "script", "error"};
+    private static final String[] SOURCES = {"speech", "click", "key", "auto", "load", "sync"};
+    private static final int JUMP = 3;
+    private static final long CORRECTION_NANOS = 5_000_000_000L;
+    private static final long STALL_NANOS = 3_000_000_000L;
+    private static final long STALL_VOICED_BYTES = 2L * AudioSettings.VOSK_RATE; // one second of speech
+
+    private long audioChunks, voicedChunks, overruns, audioBytes;
+    private long partials, finals, words, errors, scrolls;
+    private long matches, moves, jumps, backward;
+    private final long[] highlights = new long[SOURCES.length];
+    private final LatencyHistogram decodeLag = new LatencyHistogram();
+    private final LatencyHistogram highlightLag = new LatencyHistogram();
+    // last speech move (for corrections) and last speech move or script load (for stalls)
+    private long lastSpeechHighlight = -1, stallFrom, voicedSinceMove;
+    private final List<String> corrections = new ArrayList<>();
+    private final List<String> stalls = new ArrayList<>();
+    private final List<String> errorLines = new ArrayList<>();
+    private final List<String> scripts = new ArrayList<>();
+    private long lastNanos;
+
+    public static int run(String[] args) {
+        Path file = null;
+        boolean timeline = false;
+        for (String a : args) {
+            switch (a) {
+                case "--journal-report" -> { }
+                case "--timeline" -> timeline = true;
+                default -> file = Path.of(a);
+            }
+        }
+        if (file == null) {
+            System.err.println("usage: --journal-report <session.pjl> [--timeline]");
+            return 2;
+        }
+        try {
+            new JournalReport().read(file, timeline);
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Failed to read journal "+file);
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    private void read(Path file, boolean timeline) throws IOException {
+        ByteBuffer in;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        if (in.limit() < SessionJournal.HEADER_BYTES || in.getInt(0) != SessionJournal.MAGIC) {
+            throw new IOException("Not a session journal");
+        }
+        if (in.getInt(4) != SessionJournal.VERSION) throw new IOException("Unsupported journal version "+in.getInt(4));
+        long startMillis = in.getLong(8);
+        long used = in.getLong(24);
+        // zero when the app didn't get to close it: scan to the first empty record
+        int end = (int) Math.min(in.limit(), used > 0 ? used : in.limit());
+        int at = SessionJournal.HEADER_BYTES;
+        long records = 0;
+        while (at + SessionJournal.RECORD_HEADER <= end) {
+            int len = in.getShort(at) & 0xFFFF;
+            if (len < SessionJournal.RECORD_HEADER || at + len > end) break;
+            String line = record(in, at, len);
+            if (timeline) System.out.println(line);
+            records++;
+            at += len;
+        }
+        finishStall();
+
+        double seconds = lastNanos / 1e9;
+        System.out.printf(Locale.ROOT, "Journal %s: started %s, %.1f s, %d records (%d KB)%s%n", file.getFileName(),
+            Instant.ofEpochMilli(startMillis), seconds, records, at / 1024, used > 0 ? "" : ", not closed cleanly");
+        for (String s : scripts) System.out.println("  script "+s);
+        System.out.printf(Locale.ROOT, "Audio: %d chunks, %.1f s, %.0f%% voiced, %d overruns%n",
+            audioChunks, audioBytes / (2.0 * AudioSettings.VOSK_RATE),
+            audioChunks == 0 ? 0.0 : 100.0 * voicedChunks / audioChunks, overruns);
+        System.out.printf(Locale.ROOT, "Recognition: %d partial changes, %d finals, %d words, capture to word %s%n",
+            partials, finals, words, lag(decodeLag));
+        System.out.printf(Locale.ROOT, "Follower: %d words, %d moves (%.0f%% match rate), %d jumps over %d words, %d backward%n",
+            matches, moves, matches == 0 ? 0.0 : 100.0 * moves / matches, jumps, JUMP, backward);
+        StringBuilder by = new StringBuilder();
+        for (int i = 0; i < SOURCES.length; i++) {
+            if (highlights[i] > 0) by.append(by.isEmpty() ? "" : ", ").append(highlights[i]).append(' ').append(SOURCES[i]);
+        }
+        System.out.printf(Locale.ROOT, "Highlight: %s; capture to highlight %s; %d scroll changes%n",
+            by.isEmpty() ? "none" : by, lag(highlightLag), scrolls);
+        System.out.printf("Operator corrections: %d%n", corrections.size());
+        for (String c : corrections) System.out.println("  "+c);
+        System.out.printf("Stalls (speech without highlight moves for %d s or more): %d%n", STALL_NANOS / 1_000_000_000L, stalls.size());
+        for (String s : stalls) System.out.println("  "+s);
+        System.out.printf("Errors: %d%n", errors);
+        for (String e : errorLines) System.out.println("  "+e);
+    }
+
+    private String record(ByteBuffer in, int at, int len) {
+        int type = in.get(at + 2);
+        int flags = in.get(at + 3) & 0xFF;
+        long t = in.getLong(at + 4);
+        int p = at + SessionJournal.RECORD_HEADER;
+        lastNanos = Math.max(lastNanos, t);
+        String detail;
+        switch (type) {
+            case SessionJournal.AUDIO -> {
+                int bytes = in.getInt(p);
+                boolean voiced = (flags & SessionJournal.VOICED) != 0;
+                audioChunks++;
+                audioBytes += bytes;
+                if (voiced) {
+                    voicedChunks++;
+                    voicedSinceMove += bytes;
+                }
+                if ((flags & SessionJournal.OVERRUN) != 0) overruns++;
+                detail = bytes + (voiced ? "\tvoiced" : "\tsilent") + ((flags & SessionJournal.OVERRUN) != 0 ? "\toverrun" : "");
+            }
+            case SessionJournal.PARTIAL, SessionJournal.FINAL -> {
+                if (type == SessionJournal.FINAL) finals++; else partials++;
+                detail = text(in, p, at + len);
+            }
+            case SessionJournal.WORD -> {
+                long captured = in.getLong(p);
+                words++;
+                decodeLag.record(Math.max(0, t - captured));
+                detail = text(in, p + 8, at + len) + "\t" + ms(t - captured);
+            }
+            case SessionJournal.MATCH -> {
+                int from = in.getInt(p), to = in.getInt(p + 4);
+                matches++;
+                if (to >= 0) {
+                    moves++;
+                    if (to < from) backward++;
+                    if (Math.abs(to - from) > JUMP) jumps++;
+                }
+                detail = text(in, p + 8, at + len) + "\t" + from + "\t" + to;
+            }
+            case SessionJournal.HIGHLIGHT -> {
+                int index = in.getInt(p);
+                long captured = in.getLong(p + 4);
+                int source = Math.min(flags, SOURCES.length - 1);
+                highlights[source]++;
+                if (source == SessionJournal.BY_SPEECH) {
+                    if (captured >= 0) highlightLag.record(Math.max(0, t - captured));
+                    finishStall();
+                    lastSpeechHighlight = stallFrom = t;
+                    voicedSinceMove = 0;
+                } else if ((source == SessionJournal.BY_CLICK || source == SessionJournal.BY_KEY)
+                           && lastSpeechHighlight >= 0 && t - lastSpeechHighlight < CORRECTION_NANOS) {
+                    corrections.add(String.format(Locale.ROOT, "%s %s to word %d, %.1f s after the last speech move",
+                        clock(t), SOURCES[source], index, (t - lastSpeechHighlight) / 1e9));
+                }
+                detail = index + "\t" + SOURCES[source] + (captured >= 0 ? "\t" + ms(t - captured) : "");
+            }
+            case SessionJournal.SCROLL -> {
+                scrolls++;
+                detail = String.format(Locale.ROOT, "%.4f", in.getDouble(p));
+            }
+            case SessionJournal.SCRIPT -> {
+                String s = in.getInt(p) + " words\t" + text(in, p + 4, at + len);
+                scripts.add(clock(t) + " " + s.replace('\t', ' '));
+                // a new script restarts the speech/move bookkeeping
+                finishStall();
+                lastSpeechHighlight = -1;
+                stallFrom = t;
+                voicedSinceMove = 0;
+                detail = s;
+            }
+            case SessionJournal.ERROR -> {
+                errors++;
+                detail = text(in, p, at + len);
+                errorLines.add(clock(t) + " " + detail);
+            }
+            default -> detail = "";
+        }
+        String name = type > 0 && type < TYPES.length ? TYPES[type] : "type" + type;
+        return String.format(Locale.ROOT, "%.3f\t%s\t%s", t / 1e6, name, detail);
+    }
+
+    // Called at each speech move and at the end: was the speaker talking long enough without one?
+    private void finishStall() {
+        if (lastNanos - stallFrom >= STALL_NANOS && voicedSinceMove >= STALL_VOICED_BYTES) {
+            stalls.add(String.format(Locale.ROOT, "%s for %.1f s with %.1f s of speech", clock(stallFrom),
+                (lastNanos - stallFrom) / 1e9, voicedSinceMove / (2.0 * AudioSettings.VOSK_RATE)));
+        }
+    }
+
+    private static String text(ByteBuffer in, int from, int to) {
+        byte[] utf = new byte[to - from];
+        in.get(from, utf);
+        return new String(utf, StandardCharsets.UTF_8);
+    }
+
+    private static String lag(LatencyHistogram h) {
+        if (h.count() == 0) return "n/a";
+        return String.format(Locale.ROOT, "p50 %.0f ms, p95 %.0f ms, max %.0f ms",
+            h.percentileMillis(0.5), h.percentileMillis(0.95), h.maxMillis());
+    }
+
+    private static String ms(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+
+    private static String clock(long nanos) {
+        long s = nanos / 1_000_000_000L;
+        return String.format("%d:%02d", s / 60, s % 60);
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.Arrays;
+
+/*
+ * Fixed-size log-linear histogram of durations (microsecond resolution, eight
+ * sub-buckets per power of two, up to ~70 minutes). Recording is an index
+ * computation and an increment, so it can sit on the audio and FX paths.
+ * Single writer; readers may see a slightly stale view.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    private final long[] counts = new long[32 * SUB];
+    private volatile long total;
+    private long maxMicros;
+
+    public void record(long nanos) {
+        long us = Math.max(0, nanos / 1000);
+        counts[index(us)]++;
+        if (us > maxMicros) maxMicros = us;
+        total++;
+    }
+
+    public long count() { return total; }
+
+    public double maxMillis() { return maxMicros / 1e3; }
+
+    // Upper edge of the bucket holding the p-quantile (0..1), in milliseconds
+    public double percentileMillis(double p) {
+        long n = total;
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * n)), seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperMicros(i), maxMicros) / 1e3;
+        }
+        return maxMicros / 1e3;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        maxMicros = 0;
+        total = 0;
+    }
+
+    private static int index(long us) {
+        if (us < SUB) return (int) us;
+        int exp = 63 - Long.numberOfLeadingZeros(us);
+        int sub = (int) (us >>> (exp - SUB_BITS)) & (SUB - 1);
+        return Math.min((exp - SUB_BITS + 1) * SUB + sub, 32 * SUB - 1);
+    }
+
+    private static long upperMicros(int i) {
+        if (i < SUB) return i;
+        int exp = i / SUB + SUB_BITS - 1, sub = i % SUB;
+        return ((long) (SUB + sub + 1) << (exp - SUB_BITS)) - 1;
+    }
+}
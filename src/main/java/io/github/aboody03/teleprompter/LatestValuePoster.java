@@ -0,0 +1,33 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/*
+ * Coalesces a stream of int updates from a worker thread into at most one
+ * pending UI task: while a post is queued, newer values just overwrite the
+ * latest one, so a burst of matches costs one Platform.runLater.
+ */
+public class LatestValuePoster {
+    private final Consumer<Runnable> post;
+    private final IntConsumer apply;
+    private final AtomicInteger latest = new AtomicInteger();
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    public LatestValuePoster(Consumer<Runnable> post, IntConsumer apply) {
+        this.post = post;
+        this.apply = apply;
+    }
+
+    public void offer(int value) {
+        latest.set(value);
+        if (pending.compareAndSet(false, true)) {
+            post.accept(() -> {
+                pending.set(false);
+                apply.accept(latest.get());
+            });
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.aboody03.teleprompter;
+
+/*
+ * A script ready to swap in: tokens plus the follower's n-gram index, built off
+ * the FX thread. complete is false for the partial versions a streamed import
+ * shows before the whole document has been read.
+ */
+public record LoadedScript(String name, ScriptTokens tokens, NgramIndex index, boolean complete) {
+    public static LoadedScript of(String name, ScriptTokens tokens) {
+        return of(name, tokens, true);
+    }
+
+    public static LoadedScript of(String name, ScriptTokens tokens, boolean complete) {
+        return new LoadedScript(name, tokens, NgramIndex.build(tokens), complete);
+    }
+
+    // A longer version of prev (streamed import); only the new words are indexed
+    public static LoadedScript extend(LoadedScript prev, ScriptTokens tokens, boolean complete) {
+        return new LoadedScript(prev.name(), tokens, NgramIndex.extend(prev.index(), tokens), complete);
+    }
+
+    public long estimateBytes() { return tokens.estimateBytes() + index.estimateBytes(); }
+}
@@ -0,0 +1,178 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Bigram/trigram index over the script, built once per load. Words are reduced
+ * to term ids (homophones share one, looked up by group id so a heard
+ * homophone costs no string key on the match thread), each n-gram is hashed into the top 40 bits
+ * of a long with its end position in the low 24, and the longs are sorted, so a
+ * lookup is a binary search plus a short verified scan.
+ */
+public final class NgramIndex {
+    private static final int POS_BITS = 24;
+    private static final long POS_MASK = (1L << POS_BITS) - 1;
+    private static final long TRIGRAM = 1L << 39;
+
+    // words outside any homophone group, then term id by group id (-1 where the script has none)
+    private final Map<String, Integer> termIds;
+    private final int[] groupTerms;
+    private final int termCount;
+    private final int[] terms;
+    private final long[] entries;
+    private final long buildNanos;
+
+    private NgramIndex(Map<String, Integer> termIds, int[] groupTerms, int termCount, int[] terms, long[] entries,
+                       long buildNanos) {
+        this.termIds = termIds;
+        this.groupTerms = groupTerms;
+        this.termCount = termCount;
+        this.terms = terms;
+        this.entries = entries;
+        this.buildNanos = buildNanos;
+    }
+
+    public static NgramIndex build(ScriptTokens tokens) {
+        return extend(null, tokens);
+    }
+
+    /*
+     * Index for a longer version of the script prev was built from (streamed
+     * import): only n-grams ending in the new words are hashed and sorted,
+     * then merged with prev's. prev stays valid for readers still using it.
+     */
+    public static NgramIndex extend(NgramIndex prev, ScriptTokens tokens) {
+        long t0 = System.nanoTime();
+        int n = Math.min(tokens.size(), (int) POS_MASK);
+        int old = prev == null ? 0 : prev.terms.length;
+        if (prev != null && n <= old) return prev;
+        Map<String, Integer> termIds = prev == null ? new HashMap<>() : new HashMap<>(prev.termIds);
+        int[] groupTerms = prev == null ? new int[0] : prev.groupTerms.clone();
+        int termCount = prev == null ? 0 : prev.termCount;
+        int[] terms = prev == null ? new int[n] : Arrays.copyOf(prev.terms, n);
+        for (int i = old; i < n; i++) {
+            int g = tokens.group(i);
+            if (g < 0) {
+                Integer id = termIds.get(tokens.norm(i));
+                if (id == null) termIds.put(tokens.norm(i), id = termCount++);
+                terms[i] = id;
+                continue;
+            }
+            if (g >= groupTerms.length) {
+                int size = groupTerms.length;
+                groupTerms = Arrays.copyOf(groupTerms, Math.max(g + 1, 2 * size));
+                Arrays.fill(groupTerms, size, groupTerms.length, -1);
+            }
+            if (groupTerms[g] < 0) groupTerms[g] = termCount++;
+            terms[i] = groupTerms[g];
+        }
+        long[] added = new long[entryCount(n) - entryCount(old)];
+        int k = 0;
+        for (int i = Math.max(1, old); i < n; i++) {
+            added[k++] = hash(-1, terms[i-1], terms[i]) << POS_BITS | i;
+            if (i >= 2) added[k++] = hash(terms[i-2], terms[i-1], terms[i]) << POS_BITS | i;
+        }
+        Arrays.sort(added);
+        long[] entries = prev == null ? added : merge(prev.entries, added);
+        long nanos = System.nanoTime() - t0 + (prev == null ? 0 : prev.buildNanos);
+        return new NgramIndex(termIds, groupTerms, termCount, terms, entries, nanos);
+    }
+
+    // Bigrams and trigrams in an n-word script
+    private static int entryCount(int n) {
+        return Math.max(0, n - 1) + Math.max(0, n - 2);
+    }
+
+    private static long[] merge(long[] a, long[] b) {
+        long[] out = new long[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) out[k++] = a[i] <= b[j] ? a[i++] : b[j++];
+        while (i < a.length) out[k++] = a[i++];
+        while (j < b.length) out[k++] = b[j++];
+        return out;
+    }
+
+    // Term id for a normalized heard word, or -1 if the script never uses it
+    public int termOf(String norm, int group) {
+        if (group >= 0) return group < groupTerms.length ? groupTerms[group] : -1;
+        return termIds.getOrDefault(norm, -1);
+    }
+
+    /*
+     * Occurrences of the n-gram ending at script positions (a is optional:
+     * pass -1 for a bigram), counted up to limit.
+     */
+    public int count(int a, int b, int c, int limit) {
+        if (!valid(a, b, c)) return 0;
+        long key = hash(a, b, c) << POS_BITS;
+        int found = 0;
+        for (int i = first(key); i < entries.length && (entries[i] & ~POS_MASK) == key && found < limit; i++) {
+            if (occursAt((int) (entries[i] & POS_MASK), a, b, c)) found++;
+        }
+        return found;
+    }
+
+    /*
+     * The occurrence nearest to pos other than pos itself, the earlier one on
+     * a tie, or -1. A key's positions are sorted, so this is a binary search
+     * to pos and a step either way past any hash collisions.
+     */
+    public int nearest(int a, int b, int c, int pos) {
+        if (!valid(a, b, c)) return -1;
+        long key = hash(a, b, c) << POS_BITS;
+        int at = first(key | Math.max(0, pos));
+        int before = -1, after = -1;
+        for (int i = at - 1; i >= 0 && (entries[i] & ~POS_MASK) == key; i--) {
+            int p = (int) (entries[i] & POS_MASK);
+            if (occursAt(p, a, b, c)) {
+                before = p;
+                break;
+            }
+        }
+        for (int i = at; i < entries.length && (entries[i] & ~POS_MASK) == key; i++) {
+            int p = (int) (entries[i] & POS_MASK);
+            if (p != pos && occursAt(p, a, b, c)) {
+                after = p;
+                break;
+            }
+        }
+        if (before < 0 || after < 0) return Math.max(before, after);
+        return pos - before <= after - pos ? before : after;
+    }
+
+    private static boolean valid(int a, int b, int c) {
+        return b >= 0 && c >= 0 && a >= -1;
+    }
+
+    // First entry at or after the given one
+    private int first(long entry) {
+        int i = Arrays.binarySearch(entries, entry);
+        return i < 0 ? -i - 1 : i;
+    }
+
+    // The hash picked the entry; the terms confirm it
+    private boolean occursAt(int pos, int a, int b, int c) {
+        if (terms[pos] != c || terms[pos-1] != b) return false;
+        return a < 0 || (pos >= 2 && terms[pos-2] == a);
+    }
+
+    public int size() { return entries.length; }
+
+    // Total across the initial build and every extend
+    public long getBuildNanos() { return buildNanos; }
+
+    public long estimateBytes() {
+        return 8L * entries.length + 4L * (terms.length + groupTerms.length) + 64L * termIds.size();
+    }
+
+    private static long hash(int a, int b, int c) {
+        long h = a < 0 ? 0 : TRIGRAM;
+        long mix = (a * 0x9E3779B97F4A7C15L) ^ (b * 0xC2B2AE3D27D4EB4FL) ^ (c * 0x165667B19E3779F9L);
+        mix ^= mix >>> 29;
+        mix *= 0xBF58476D1CE4E5B9L;
+        mix ^= mix >>> 32;
+        return h | (mix & (TRIGRAM - 1));
+    }
+}
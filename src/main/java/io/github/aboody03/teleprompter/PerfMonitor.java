@@ -0,0 +1,195 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.util.Duration;
+
+import org.json.JSONObject;
+
+/*
+ * Where a lagging prompter spends its time, sampled once a second: frame
+ * intervals and scene pulse (CSS + layout) times on the FX thread, highlight
+ * cost, word-to-highlight latency and real-time factor from the recognizer,
+ * its queue depths, heap and scene node counts. Shown in a top-bar label
+ * while the overlay is on, and appended as JSON lines to the file named by
+ * -Dpromptme.metrics for offline analysis. Costs nothing while neither is on.
+ */
+public class PerfMonitor {
+    private static final String EXPORT_PROPERTY = "promptme.metrics";
+
+    private final Scene scene;
+    private final ScriptView view;
+    private final ScriptFollower follower;
+    private final Supplier<SpeechRecognizer> speech;
+    private final Label overlay = new Label();
+    private final Path exportFile;
+    private BufferedWriter out;
+
+    // per-sample windows; the recognizer and view keep their own cumulative histograms
+    private final LatencyHistogram frames = new LatencyHistogram();
+    private final LatencyHistogram pulses = new LatencyHistogram();
+    private long lastFrame, pulseStart;
+    private boolean overlayOn, running;
+
+    private final AnimationTimer frameTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (lastFrame != 0) frames.record(now - lastFrame);
+            lastFrame = now;
+        }
+    };
+    private final Runnable preLayout = () -> pulseStart = System.nanoTime();
+    private final Runnable postLayout = () -> {
+        if (pulseStart != 0) pulses.record(System.nanoTime() - pulseStart);
+    };
+    private final Timeline sampler = new Timeline(new KeyFrame(Duration.seconds(1), e -> sample()));
+
+    public PerfMonitor(Scene scene, ScriptView view, ScriptFollower follower, Supplier<SpeechRecognizer> speech) {
+        this.scene = scene;
+        this.view = view;
+        this.follower = follower;
+        this.speech = speech;
+        String path = System.getProperty(EXPORT_PROPERTY, "");
+        this.exportFile = path.isBlank() ? null : Path.of(path);
+        sampler.setCycleCount(Timeline.INDEFINITE);
+        overlay.getStyleClass().add("metrics-overlay");
+        overlay.managedProperty().bind(overlay.visibleProperty());
+        overlay.setVisible(false);
+        if (exportFile != null) update();
+    }
+
+    public Label getOverlay() { return overlay; }
+
+    public void setOverlayVisible(boolean on) {
+        overlayOn = on;
+        overlay.setVisible(on);
+        update();
+    }
+
+    public void close() {
+        overlayOn = false;
+        if (running) {
+            running = false;
+            stopSampling();
+        }
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            out = null;
+        }
+    }
+
+    private void update() {
+        boolean want = overlayOn || exportFile != null;
+        if (want == running) return;
+        running = want;
+        if (want) {
+            lastFrame = 0;
+            frames.reset();
+            pulses.reset();
+            frameTimer.start();
+            scene.addPreLayoutPulseListener(preLayout);
+            scene.addPostLayoutPulseListener(postLayout);
+            sampler.play();
+        } else {
+            stopSampling();
+        }
+    }
+
+    private void stopSampling() {
+        frameTimer.stop();
+        scene.removePreLayoutPulseListener(preLayout);
+        scene.removePostLayoutPulseListener(postLayout);
+        sampler.stop();
+    }
+
+    private void sample() {
+        Runtime rt = Runtime.getRuntime();
+        long heapUsed = rt.totalMemory() - rt.freeMemory();
+        SpeechRecognizer rec = speech.get();
+        LatencyHistogram wordLatency = rec != null ? rec.getHighlightLatency() : null;
+        LatencyHistogram highlight = view.getHighlightTimes();
+
+        JSONObject m = new JSONObject();
+        m.put("time", System.currentTimeMillis());
+        m.put("fps", frames.count());
+        m.put("frameP50Ms", frames.percentileMillis(0.5));
+        m.put("frameP99Ms", frames.percentileMillis(0.99));
+        m.put("frameMaxMs", frames.maxMillis());
+        m.put("pulseP99Ms", pulses.percentileMillis(0.99));
+        m.put("highlightP99Ms", highlight.percentileMillis(0.99));
+        m.put("highlightNodes", view.getLastHighlightNodes());
+        m.put("heapUsedMB", heapUsed >> 20);
+        m.put("heapMaxMB", rt.maxMemory() >> 20);
+        m.put("sceneNodes", countNodes(scene.getRoot()));
+        m.put("heardWords", follower.getWordCount());
+        m.put("moves", follower.getMoveCount());
+        m.put("resyncs", follower.getResyncCount());
+        if (rec != null) {
+            m.put("wordToHighlightP50Ms", wordLatency.percentileMillis(0.5));
+            m.put("wordToHighlightP99Ms", wordLatency.percentileMillis(0.99));
+            m.put("wordToHighlightCount", wordLatency.count());
+            m.put("realTimeFactor", rec.getRealTimeFactor());
+            m.put("audioQueue", rec.getAudioQueueDepth());
+            m.put("wordQueue", rec.getWordQueueDepth());
+            m.put("overruns", rec.getOverruns());
+        }
+
+        if (overlayOn) {
+            overlay.setText(String.format(Locale.ROOT,
+                "%d fps  frame p99 %.1f ms  pulse p99 %.1f ms  heap %d/%d MB  nodes %d%n"
+                + "word→highlight p50 %.0f / p99 %.0f ms  rtf %.2f  queues %d/%d  overruns %d",
+                frames.count(), frames.percentileMillis(0.99), pulses.percentileMillis(0.99),
+                heapUsed >> 20, rt.maxMemory() >> 20, m.getInt("sceneNodes"),
+                m.optDouble("wordToHighlightP50Ms", 0), m.optDouble("wordToHighlightP99Ms", 0),
+                m.optDouble("realTimeFactor", 0), m.optInt("audioQueue"), m.optInt("wordQueue"), m.optLong("overruns")));
+        }
+        if (exportFile != null) export(m);
+        frames.reset();
+        pulses.reset();
+    }
+
+    private void export(JSONObject m) {
+        try {
+            if (out == null) {
+                if (exportFile.toAbsolutePath().getParent() != null) {
+                    Files.createDirectories(exportFile.toAbsolutePath().getParent());
+                }
+                out = Files.newBufferedWriter(exportFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                DebugLog.println("Metrics: writing to "+exportFile.toAbsolutePath());
+            }
+            out.write(m.toString());
+            out.newLine();
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Failed to write metrics to "+exportFile);
+            e.printStackTrace();
+        }
+    }
+
+    private static int countNodes(Node node) {
+        int n = 1;
+        if (node instanceof Parent p) {
+            for (Node child : p.getChildrenUnmodifiable()) n += countNodes(child);
+        }
+        return n;
+    }
+}
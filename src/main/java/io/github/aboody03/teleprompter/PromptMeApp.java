@@ -5,11 +5,14 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntConsumer;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.ScaleTransition;
@@ -19,9 +22,8 @@ import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.geometry.Bounds;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
@@ -29,21 +31,21 @@ import javafx.scene.Cursor;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Slider;
+import javafx.scene.control.Spinner;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.Tooltip;
 import javafx.scene.input.Dragboard;
 import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.TransferMode;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.shape.Polygon;
 import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextAlignment;
-import javafx.scene.text.TextFlow;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
@@ -51,11 +53,21 @@ import javafx.util.Duration;
 
 public class PromptMeApp extends Application {
     private SpeechRecognizer speechRec;
+    private PerfMonitor perfMonitor;
+    // Display sync: -Dpromptme.sync.publish=<port> drives mirrors, -Dpromptme.sync.follow=<host:port> is one
+    private SyncPublisher syncPublisher;
+    private SyncClient syncClient;
+    // -Dpromptme.journal=<dir>: speech, matches, highlights and scrolling for post-show analysis
+    private SessionJournal journal;
+    private ScriptPlaylist playlist;
 
     @Override
     public void start(Stage primaryStage) throws Exception {
-        // Load speech model
-        speechRec = new SpeechRecognizer();
+        long startNanos = System.nanoTime();
+        StartupReport.phase("javafx launch", StartupReport.startNanos());
+        // Homophones load in the background so the first heard word doesn't wait
+        HomophoneUtils.preload();
+        journal = SessionJournal.openDefault();
 
         // Window setup
         primaryStage.initStyle(StageStyle.TRANSPARENT);
@@ -108,24 +120,21 @@ public class PromptMeApp extends Application {
             script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
         }
 
-        // Word nodes & TextFlow
-        List<Text> wordNodes = new ArrayList<>();
-        for (String w : script.split("[—\\-\\s]+")) {
-            Text t = new Text(w + " ");
-            t.getStyleClass().add("teleprompter-word");
-            wordNodes.add(t);
-        }
-        TextFlow flow = new TextFlow(wordNodes.toArray(new Text[0]));
-        flow.setTextAlignment(TextAlignment.CENTER);
-        flow.setLineSpacing(5);
-        flow.setPrefWidth(780);
+        // Virtualized script view
+        long tokenizeNanos = System.nanoTime();
+        ScriptView view = new ScriptView();
+        view.setTokens(ScriptTokens.tokenize(script));
+        if (journal != null) journal.script(view.wordCount(), "script.txt");
+        StartupReport.phase("default script", tokenizeNanos);
+        view.setPrefWidth(780);
 
         // Scroll pane + slider
-        ScrollPane scroll = new ScrollPane(flow);
+        ScrollPane scroll = new ScrollPane(view);
         scroll.setFitToWidth(true);
         scroll.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
         scroll.setVbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
         scroll.setStyle("-fx-background-color: transparent;");
+        view.attach(scroll);
 
         Slider scrollSlider = new Slider(0,1,0);
         scrollSlider.setOrientation(Orientation.VERTICAL);
@@ -134,111 +143,309 @@ public class PromptMeApp extends Application {
         scrollSlider.setTooltip(UIUtils.makeTooltip("Scroll Script"));
         scrollSlider.valueProperty().addListener((obs,ov,nv) ->
             scroll.setVvalue(1.0-nv.doubleValue()));
-        scroll.vvalueProperty().addListener((obs,ov,nv) ->
-            scrollSlider.setValue(1.0-nv.doubleValue()));
+        scroll.vvalueProperty().addListener((obs,ov,nv) -> {
+            scrollSlider.setValue(1.0-nv.doubleValue());
+            if (journal != null) journal.scroll(nv.doubleValue());
+        });
 
         // Highlighting helper
         final int[] currentIndex = {0};
+        ScriptFollower follower = new ScriptFollower();
+        follower.setTokens(view.getTokens());
+        // Manual moves jump straight there; matches from speech glide (see AutoScroller)
+        AutoScroller scroller = new AutoScroller(scroll, view);
+        // Mirrors wrap for their own window, so the scroll goes out as the word at the viewport's centre
+        DoubleSupplier syncPosition = () -> view.wordPositionAt(scroll.getVvalue(), scroll.getViewportBounds().getHeight());
         Consumer<Integer> highlight = idx -> {
-            wordNodes.forEach(n -> n.getStyleClass().setAll("teleprompter-word"));
-            if (idx < wordNodes.size()) {
-                Text curr = wordNodes.get(idx);
-                curr.getStyleClass().add("teleprompter-highlight");
-                if (idx>0) wordNodes.get(idx-1).getStyleClass().add("teleprompter-near");
-                if (idx+1<wordNodes.size()) wordNodes.get(idx+1).getStyleClass().add("teleprompter-near");
-                Bounds nb = curr.getBoundsInParent(), cb = flow.getBoundsInLocal(), vp = scroll.getViewportBounds();
-                double y = nb.getMinY();
-                double v = (y + nb.getHeight()/2 - vp.getHeight()/2)/(cb.getHeight()-vp.getHeight());
-                scroll.setVvalue(Math.max(0, Math.min(1,v)));
-            }
+            view.setCurrent(idx);
+            if (idx < view.wordCount()) scroller.jumpTo(idx);
+            if (syncPublisher != null) syncPublisher.publish(idx, syncPosition.getAsDouble());
         };
-        highlight.accept(0);
-        for (int i=0; i<wordNodes.size(); i++) {
-            final int idx = i;
-            wordNodes.get(i).setCursor(Cursor.HAND);
-            wordNodes.get(i).setOnMouseClicked(e -> {
-                currentIndex[0]=idx; highlight.accept(idx);
-            });
+
+        // Display sync: mirrors get every index move and scroll frame, coalesced by the publisher
+        String publishPort = System.getProperty("promptme.sync.publish");
+        String followTarget = System.getProperty("promptme.sync.follow");
+        if (publishPort != null && followTarget == null) {
+            String bind = System.getProperty("promptme.sync.bind");
+            try {
+                syncPublisher = new SyncPublisher(Integer.parseInt(publishPort.trim()),
+                    bind == null ? null : InetAddress.getByName(bind));
+                syncPublisher.publishScript(view.getTokens());
+                scroll.vvalueProperty().addListener((obs,ov,nv) ->
+                    syncPublisher.publish(currentIndex[0], syncPosition.getAsDouble()));
+            } catch (IOException | NumberFormatException ex) {
+                System.err.println("Failed to start sync publisher on port "+publishPort);
+                ex.printStackTrace();
+            }
         }
+        highlight.accept(0);
+        view.setOnWordClicked(idx -> {
+            currentIndex[0]=idx; follower.setPosition(idx); highlight.accept(idx);
+            if (journal != null) journal.highlight(idx, SessionJournal.BY_CLICK, 0);
+        });
 
-        // File loading
-        DoubleProperty fontSizeProp = new SimpleDoubleProperty(18);
+        // File loading (streamed off the FX thread; the first page shows while the rest loads)
+        DoubleProperty fontSizeProp = view.fontSizeProperty();
+        ScriptImporter importer = new ScriptImporter();
+        ProgressIndicator importProgress = new ProgressIndicator();
+        importProgress.setPrefSize(20, 20);
+        Button cancelImportBtn = new Button("✕");
+        cancelImportBtn.getStyleClass().add("control-button");
+        cancelImportBtn.setCursor(Cursor.HAND);
+        cancelImportBtn.setTooltip(UIUtils.makeTooltip("Cancel import"));
+        cancelImportBtn.setOnAction(e -> importer.cancel());
+        HBox importBox = new HBox(4, importProgress, cancelImportBtn);
+        importBox.setAlignment(Pos.CENTER_LEFT);
+        importBox.managedProperty().bind(importBox.visibleProperty());
+        importBox.setVisible(false);
+        // A cancelled or failed import leaves its first pages up; say that it stops short
+        Label partialNotice = new Label("⚠ partial");
+        partialNotice.getStyleClass().add("import-notice");
+        Tooltip partialTip = UIUtils.makeTooltip("");
+        partialNotice.setTooltip(partialTip);
+        partialNotice.managedProperty().bind(partialNotice.visibleProperty());
+        partialNotice.setVisible(false);
+
+        Consumer<LoadedScript> showScript = loaded -> {
+            partialNotice.setVisible(false);
+            view.setTokens(loaded.tokens());
+            if (syncPublisher != null) syncPublisher.publishScript(loaded.tokens());
+            follower.setScript(loaded.tokens(), loaded.index());
+            if (speechRec != null) speechRec.setVocabulary(loaded.tokens());
+            currentIndex[0]=0; highlight.accept(0);
+            if (journal != null) {
+                journal.script(loaded.tokens().size(), loaded.name());
+                journal.highlight(0, SessionJournal.BY_LOAD, 0);
+            }
+        };
+        // Highlight and scroll position stay put while the rest of the document streams in
+        Consumer<LoadedScript> extendScript = loaded -> {
+            view.appendTokens(loaded.tokens());
+            // mirrors get the first page (showScript) and the finished document, not every snapshot
+            if (syncPublisher != null && loaded.complete()) syncPublisher.publishScript(loaded.tokens());
+            follower.extend(loaded.tokens(), loaded.index());
+            // one grammar for the finished document, not one per streamed snapshot
+            if (speechRec != null && loaded.complete()) speechRec.setVocabulary(loaded.tokens());
+        };
+        // The shown pages are the whole script now: mirrors and the grammar catch up to them
+        Consumer<LoadedScript> truncateScript = loaded -> {
+            if (syncPublisher != null) syncPublisher.publishScript(loaded.tokens());
+            if (speechRec != null) speechRec.setVocabulary(loaded.tokens());
+            partialTip.setText(loaded.name()+" stopped loading after "+loaded.tokens().size()
+                +" words; the rest of the document is missing");
+            partialNotice.setVisible(true);
+        };
+        Consumer<File> importFile = file -> {
+            Task<LoadedScript> task = importer.load(file, showScript, extendScript, truncateScript);
+            importProgress.progressProperty().bind(task.progressProperty());
+            importBox.visibleProperty().bind(task.runningProperty());
+            Tooltip.install(importProgress, UIUtils.makeTooltip("Importing "+file.getName()));
+        };
+
+        // Run of show: preloaded scripts swap in at once; ones that aren't ready import as usual
+        Label playlistStatus = new Label();
+        playlistStatus.getStyleClass().add("playlist-status");
+        Tooltip playlistTip = UIUtils.makeTooltip("");
+        playlistStatus.setTooltip(playlistTip);
+        playlistStatus.managedProperty().bind(playlistStatus.visibleProperty());
+        playlistStatus.setVisible(false);
+        IntConsumer showEntry = i -> {
+            if (playlist == null || i < 0 || i >= playlist.size()) return;
+            long t0 = System.nanoTime();
+            LoadedScript ready = playlist.select(i);
+            if (ready != null) {
+                importer.discard();
+                showScript.accept(ready);
+                DebugLog.printf("Playlist: switched to %s in %.1f ms%n", ready.name(), (System.nanoTime() - t0) / 1e6);
+            } else {
+                importFile.accept(playlist.file(i));
+            }
+            // scripts that left the window take their measured widths with them, after this frame
+            ScriptPlaylist pl = playlist;
+            Platform.runLater(() -> {
+                if (playlist == pl) view.retainWidths(pl.readyTokens());
+            });
+        };
+        Consumer<List<File>> openPlaylist = files -> {
+            if (playlist != null) playlist.close();
+            ScriptPlaylist pl = new ScriptPlaylist(files, importer.getCache(), Platform::runLater);
+            playlist = pl;
+            pl.setOnChange(() -> {
+                if (playlist != pl) return;
+                playlistStatus.setText(pl.status());
+                playlistTip.setText(pl.describe());
+            });
+            // stops when the playlist is closed or replaced, or the script drops out of its window
+            pl.setOnReady(loaded -> view.premeasure(loaded.tokens(), () -> playlist == pl && pl.isReady(loaded)));
+            playlistStatus.setVisible(true);
+            showEntry.accept(0);
+        };
         Consumer<File> loadFile = file -> {
-            String newScript = "";
-            String name = file.getName().toLowerCase();
-            try {
-                if (name.endsWith(".txt")) {
-                    newScript = Files.readString(file.toPath(), StandardCharsets.UTF_8);
-                } else if (name.endsWith(".docx")) {
-                    try (var doc = new org.apache.poi.xwpf.usermodel.XWPFDocument(Files.newInputStream(file.toPath()));
-                         var ext = new org.apache.poi.xwpf.extractor.XWPFWordExtractor(doc)) {
-                        newScript = ext.getText();
-                    }
-                } else if (name.endsWith(".doc")) {
-                    try (var fis = Files.newInputStream(file.toPath());
-                         var doc = new org.apache.poi.hwpf.HWPFDocument(fis);
-                         var ext = new org.apache.poi.hwpf.extractor.WordExtractor(doc)) {
-                        newScript = ext.getText();
-                    }
-                } else if (name.endsWith(".pdf")) {
-                    try (var pd = org.apache.pdfbox.pdmodel.PDDocument.load(file)) {
-                        newScript = new org.apache.pdfbox.text.PDFTextStripper().getText(pd);
-                    }
+            if (ScriptPlaylist.isPlaylist(file)) {
+                try {
+                    openPlaylist.accept(ScriptPlaylist.read(file));
+                } catch (IOException ex) {
+                    System.err.println("Failed to read playlist "+file);
+                    ex.printStackTrace();
                 }
-            } catch (IOException ex) {
-                ex.printStackTrace();
                 return;
             }
-            wordNodes.clear();
-            flow.getChildren().clear();
-            for (String w : newScript.split("[—\\-\\s]+")) {
-                Text t = new Text(w + " ");
-                t.getStyleClass().add("teleprompter-word");
-                t.styleProperty().bind(
-                Bindings.concat("-fx-font-size: ", fontSizeProp.asString("%.0f"), "px;")
-                );
-                final int idx = wordNodes.size();
-                t.setCursor(Cursor.HAND);
-                t.setOnMouseClicked(e -> {
-                    currentIndex[0]=idx; highlight.accept(idx);
-                });
-                wordNodes.add(t);
+            // a single script ends the run of show
+            if (playlist != null) {
+                playlist.close();
+                playlist = null;
+                playlistStatus.setVisible(false);
+                view.retainWidths(List.of());
             }
-            flow.getChildren().setAll(wordNodes);
-            currentIndex[0]=0; highlight.accept(0);
+            importFile.accept(file);
         };
 
-        // Mic toggle
+        // Mic toggle; matches arrive on the recognizer's match thread and are coalesced per FX pulse
+        AtomicLong matchCaptured = new AtomicLong();
+        LatestValuePoster positionPoster = new LatestValuePoster(Platform::runLater, idx -> {
+            currentIndex[0]=idx;
+            view.setCurrent(idx);
+            scroller.matched(idx);
+            if (syncPublisher != null) syncPublisher.publish(idx, syncPosition.getAsDouble());
+            long captured = matchCaptured.getAndSet(0);
+            speechRec.recordHighlight(captured);
+            if (journal != null) journal.highlight(idx, SessionJournal.BY_SPEECH, captured);
+        });
         ToggleButton micBtn = new ToggleButton("🎤");
         micBtn.setTooltip(UIUtils.makeTooltip("Start/stop speech recognition"));
         micBtn.getStyleClass().add("control-button");
         micBtn.setCursor(Cursor.HAND);
         UIUtils.addHoverGrow(micBtn);
+
+        // The speech model loads while the rest of the window is built; the mic waits for it
+        ProgressIndicator modelProgress = new ProgressIndicator();
+        modelProgress.setPrefSize(20, 20);
+        modelProgress.managedProperty().bind(modelProgress.visibleProperty());
+        Tooltip.install(modelProgress, UIUtils.makeTooltip("Loading speech model…"));
+        micBtn.setDisable(true);
+        if (followTarget != null) {
+            // A mirror only renders what the publisher sends; no model, no mic
+            AtomicLong followScroll = new AtomicLong();
+            LatestValuePoster followPoster = new LatestValuePoster(Platform::runLater, idx -> {
+                currentIndex[0]=idx;
+                view.setCurrent(idx);
+                // the publisher's centre word, placed at the centre of this window's own wrap
+                double pos = Double.longBitsToDouble(followScroll.get());
+                scroll.setVvalue(view.smoothScrollFraction(pos, scroll.getViewportBounds().getHeight()));
+                if (journal != null) journal.highlight(idx, SessionJournal.BY_SYNC, 0);
+            });
+            syncClient = SyncClient.connect(followTarget, new SyncClient.Listener() {
+                @Override
+                public void onScript(ScriptTokens tokens) {
+                    Platform.runLater(() -> {
+                        view.setTokens(tokens);
+                        follower.setTokens(tokens);
+                        if (journal != null) journal.script(tokens.size(), "sync "+followTarget);
+                    });
+                }
+
+                @Override
+                public void onState(int index, double wordPosition) {
+                    followScroll.set(Double.doubleToRawLongBits(wordPosition));
+                    followPoster.offer(index);
+                }
+            });
+            modelProgress.setVisible(false);
+            micBtn.setTooltip(UIUtils.makeTooltip("Following "+followTarget));
+            StartupReport.milestone("speech ready");
+        }
+        Path modelPath = SpeechRecognizer.defaultModelPath();
+        Thread modelLoader = new Thread(() -> {
+            try {
+                SpeechRecognizer rec = new SpeechRecognizer(modelPath);
+                Platform.runLater(() -> {
+                    speechRec = rec;
+                    rec.setJournal(journal);
+                    rec.setVocabulary(view.getTokens());
+                    modelProgress.setVisible(false);
+                    micBtn.setDisable(false);
+                    StartupReport.milestone("speech ready");
+                });
+            } catch (IOException | RuntimeException ex) {
+                System.err.println("Failed to load speech model from "+modelPath.toAbsolutePath());
+                ex.printStackTrace();
+                Platform.runLater(() -> {
+                    modelProgress.setVisible(false);
+                    micBtn.setText("🚫");
+                    micBtn.setTooltip(UIUtils.makeTooltip("Speech model unavailable: "+ex.getMessage()));
+                    StartupReport.milestone("speech ready");
+                });
+            }
+        }, "Model-Loader");
+        modelLoader.setDaemon(true);
+        if (followTarget == null) modelLoader.start();
+        long[] sessionStart = new long[2];
         micBtn.selectedProperty().addListener((obs,ow,nw) -> {
             if (nw) {
                 micBtn.setText("🛑");
-                speechRec.start(spoken -> {
-                    String heard = spoken.replaceAll("\\W+$","").toLowerCase();
-                    for (int off=1; off<=3; off++) {
-                        int idx = currentIndex[0]+off;
-                        if (idx>=wordNodes.size()) break;
-                        String expect = wordNodes.get(idx).getText().trim()
-                                         .replaceAll("[\\W—]+$","").toLowerCase();
-                        if (HomophoneUtils.wordsMatch(heard,expect)) {
-                            final int newIdx = idx;
-                            Platform.runLater(() -> {
-                                currentIndex[0]=newIdx; highlight.accept(newIdx);
-                            });
-                            break;
-                        }
+                sessionStart[0] = follower.getWordCount();
+                sessionStart[1] = follower.getMoveCount();
+                boolean started = speechRec.start(heard -> {
+                    int from = follower.getPosition();
+                    int newIdx = follower.accept(heard.text());
+                    if (journal != null) journal.match(heard.text(), from, newIdx);
+                    if (newIdx >= 0) {
+                        matchCaptured.set(heard.capturedNanos());
+                        positionPoster.offer(newIdx);
                     }
                 });
+                // the last session hasn't let go of the recognizer yet: stay off
+                if (!started) Platform.runLater(() -> micBtn.setSelected(false));
             } else {
                 micBtn.setText("🎤");
-                speechRec.stop();
+                // joining the session can wait out a blocked line read; the button comes back when it's done
+                micBtn.setDisable(true);
+                SpeechRecognizer rec = speechRec;
+                Thread stopper = new Thread(() -> {
+                    rec.stop();
+                    Platform.runLater(() -> {
+                        micBtn.setDisable(false);
+                        if (DebugLog.ENABLED) {
+                            DebugLog.println("Latency: "+rec.getEndToEndStats());
+                            long heard = follower.getWordCount() - sessionStart[0], moved = follower.getMoveCount() - sessionStart[1];
+                            DebugLog.printf("Follower: %d heard words, %d matched (%.0f%%), %s vocabulary, real-time factor %.3f%n",
+                                heard, moved, heard == 0 ? 0.0 : 100.0 * moved / heard,
+                                rec.isGrammarMode() ? "script" : "open", rec.getRealTimeFactor());
+                        }
+                    });
+                }, "Mic-Stop");
+                stopper.setDaemon(true);
+                stopper.start();
             }
         });
 
+        // Fixed-rate auto-scroll for reading without the mic
+        ToggleButton autoScrollBtn = new ToggleButton("⏩");
+        autoScrollBtn.setTooltip(UIUtils.makeTooltip("Auto-scroll at a fixed speed (turns the mic off)"));
+        autoScrollBtn.getStyleClass().add("control-button");
+        autoScrollBtn.setCursor(Cursor.HAND);
+        UIUtils.addHoverGrow(autoScrollBtn);
+        Spinner<Integer> wpmSpinner = new Spinner<>(60, 300, Integer.getInteger("promptme.scroll.wpm", 140), 10);
+        wpmSpinner.setPrefWidth(80);
+        wpmSpinner.setTooltip(UIUtils.makeTooltip("Words per minute"));
+        wpmSpinner.managedProperty().bind(wpmSpinner.visibleProperty());
+        wpmSpinner.visibleProperty().bind(autoScrollBtn.selectedProperty());
+        scroller.setFixedWpm(wpmSpinner.getValue());
+        wpmSpinner.valueProperty().addListener((obs,ov,nv) -> scroller.setFixedWpm(nv));
+        scroller.setOnAdvance(idx -> {
+            currentIndex[0]=idx; follower.setPosition(idx); view.setCurrent(idx);
+            if (syncPublisher != null) syncPublisher.publish(idx, syncPosition.getAsDouble());
+            if (journal != null) journal.highlight(idx, SessionJournal.BY_AUTO, 0);
+        });
+        // Fixed pace and speech following would fight over the highlight, so only one runs at a time
+        autoScrollBtn.selectedProperty().addListener((obs,ov,nv) -> {
+            scroller.setFixed(nv);
+            if (nv) micBtn.setSelected(false);
+        });
+        micBtn.selectedProperty().addListener((obs,ov,nv) -> {
+            if (nv) autoScrollBtn.setSelected(false);
+        });
+
         // Font size slider
         Slider sizeSlider = new Slider(12,48,fontSizeProp.get());
         sizeSlider.setTooltip(UIUtils.makeTooltip("Adjust text size"));
@@ -252,12 +459,6 @@ public class PromptMeApp extends Application {
         HBox sizeBox = new HBox(4, sizeLabel, sizeSlider);
         sizeBox.getStyleClass().add("size-control");
 
-        wordNodes.forEach(t ->
-            t.styleProperty().bind(
-            Bindings.concat("-fx-font-size: ", fontSizeProp.asString("%.0f"), "px;")
-            )
-        );
-
         // Upload button
         Button uploadBtn = new Button("📂");
         uploadBtn.getStyleClass().add("control-button");
@@ -267,8 +468,9 @@ public class PromptMeApp extends Application {
         uploadBtn.setOnAction(evt -> {
             FileChooser chooser = new FileChooser();
             chooser.setTitle("Open Teleprompter Script");
-            chooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("Text, Word & PDF","*.txt","*.doc","*.docx","*.pdf")
+            chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Text, Word & PDF","*.txt","*.doc","*.docx","*.pdf"),
+                new FileChooser.ExtensionFilter("Playlist","*"+ScriptPlaylist.SUFFIX)
             );
             File file = chooser.showOpenDialog(primaryStage);
             if (file != null) loadFile.accept(file);
@@ -298,9 +500,9 @@ public class PromptMeApp extends Application {
         windowControls.setAlignment(Pos.TOP_RIGHT);
         windowControls.setPadding(new Insets(8));
 
-        HBox leftBox   = new HBox(8, uploadBtn, themeToggle);
+        HBox leftBox   = new HBox(8, uploadBtn, themeToggle, importBox, partialNotice, playlistStatus);
         leftBox.setAlignment(Pos.CENTER_LEFT);
-        HBox centerBox = new HBox(8, micBtn);
+        HBox centerBox = new HBox(8, micBtn, modelProgress, autoScrollBtn, wpmSpinner);
         centerBox.setAlignment(Pos.CENTER); centerBox.setPadding(new Insets(0,0,0,127));
         HBox rightBox  = new HBox(sizeBox);
         rightBox.setAlignment(Pos.CENTER_RIGHT);
@@ -312,7 +514,14 @@ public class PromptMeApp extends Application {
         controls.getStyleClass().add("control-bar");
         controls.setPadding(new Insets(8));
 
-        HBox timerBox = new HBox(6, timerToggle, timerLabel);
+        // Metrics overlay toggle
+        ToggleButton metricsToggle = new ToggleButton("📊");
+        metricsToggle.setTooltip(UIUtils.makeTooltip("Show / hide performance metrics"));
+        metricsToggle.getStyleClass().add("control-button");
+        metricsToggle.setCursor(Cursor.HAND);
+        UIUtils.addHoverGrow(metricsToggle);
+
+        HBox timerBox = new HBox(6, timerToggle, timerLabel, metricsToggle);
         timerBox.setAlignment(Pos.CENTER_LEFT);
         timerBox.setPadding(new Insets(8));
 
@@ -344,7 +553,9 @@ public class PromptMeApp extends Application {
             Dragboard db = e.getDragboard();
             boolean success = false;
             if (db.hasFiles()) {
-                loadFile.accept(db.getFiles().get(0));
+                // several scripts dropped at once play as a run of show in that order
+                if (db.getFiles().size() > 1) openPlaylist.accept(db.getFiles());
+                else loadFile.accept(db.getFiles().get(0));
                 success = true;
             }
             e.setDropCompleted(success);
@@ -354,17 +565,56 @@ public class PromptMeApp extends Application {
         scene.setOnKeyPressed(evt -> {
             if (evt.getCode() == KeyCode.SPACE) {
                 int next = currentIndex[0]+1;
-                if (next < wordNodes.size()) {
+                if (next < view.wordCount()) {
                     currentIndex[0]=next;
+                    follower.setPosition(next);
                     highlight.accept(next);
+                    if (journal != null) journal.highlight(next, SessionJournal.BY_KEY, 0);
                 }
             }
         });
 
-        ResizeHandler.install(scene, primaryStage);
+        // Presentation clickers send PAGE_DOWN / PAGE_UP; a filter so the scroll pane doesn't take them first
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, evt -> {
+            if (playlist == null) return;
+            if (evt.getCode() == KeyCode.PAGE_DOWN) showEntry.accept(playlist.getCurrent() + 1);
+            else if (evt.getCode() == KeyCode.PAGE_UP) showEntry.accept(playlist.getCurrent() - 1);
+            else return;
+            evt.consume();
+        });
+
+        ResizeHandler.install(scene, primaryStage, view::setReflowDeferred);
+
+        perfMonitor = new PerfMonitor(scene, view, follower, () -> speechRec);
+        topBar.setCenter(perfMonitor.getOverlay());
+        metricsToggle.selectedProperty().addListener((obs,ov,nv) -> perfMonitor.setOverlayVisible(nv));
 
         primaryStage.setScene(scene);
         primaryStage.setTitle("PromptMe");
+        primaryStage.setOnShown(e -> StartupReport.milestone("window shown"));
+        StartupReport.phase("build window", startNanos);
         primaryStage.show();
+
+        // -Dpromptme.playlist=<file.playlist> starts the show with its first script
+        String startPlaylist = System.getProperty("promptme.playlist");
+        if (startPlaylist != null) loadFile.accept(new File(startPlaylist));
+    }
+
+    @Override
+    public void stop() {
+        if (perfMonitor != null) perfMonitor.close();
+        if (playlist != null) playlist.close();
+        if (speechRec != null) speechRec.close();
+        if (journal != null) journal.close();
+        if (syncPublisher != null) {
+            DebugLog.printf("Sync: %d clients, %.2f bytes/update, round trip p50 %.3f ms, p99 %.3f ms%n",
+                syncPublisher.getClientCount(), syncPublisher.getBytesPerUpdate(),
+                syncPublisher.getRoundTripMillis(0.5), syncPublisher.getRoundTripMillis(0.99));
+            syncPublisher.close();
+        }
+        if (syncClient != null) {
+            DebugLog.println("Sync: "+syncClient.getUpdates()+" updates received");
+            syncClient.close();
+        }
     }
 }
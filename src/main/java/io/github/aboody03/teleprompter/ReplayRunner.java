@@ -0,0 +1,233 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.vosk.Model;
+import org.vosk.Recognizer;
+
+/*
+ * Headless replay: streams recorded audio through Vosk, the HypothesisTracker
+ * and the ScriptFollower exactly as the mic path does, but from files and as
+ * fast as the decoder allows (or paced at real time with --realtime). Prints
+ * one tab-separated line per emitted word and a summary, so follow accuracy
+ * and latency can be measured on a machine without an audio device.
+ *
+ *   App --replay <script> <audio.wav|audio.pcm>... [--model <dir>] [--grammar] [--realtime] [--quiet]
+ *
+ * .pcm files are raw 16 kHz mono 16-bit little-endian. Lag is how far the
+ * audio had advanced past the end of a word (Vosk's word timing) when the
+ * tracker emitted it.
+ */
+public final class ReplayRunner {
+    private final ScriptTokens tokens;
+    private final Model model;
+    private final AudioSettings settings = AudioSettings.fromSystemProperties();
+    private boolean realtime, quiet;
+    private String grammar;
+
+    private final List<Double> lags = new ArrayList<>();
+    private long emitted, moved, audioBytes;
+
+    private ReplayRunner(ScriptTokens tokens, Model model) {
+        this.tokens = tokens;
+        this.model = model;
+    }
+
+    public static int run(String[] args) {
+        List<File> audio = new ArrayList<>();
+        File script = null;
+        Path modelPath = SpeechRecognizer.defaultModelPath();
+        boolean realtime = false, quiet = false, grammar = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--replay" -> { }
+                case "--model" -> modelPath = Path.of(args[++i]);
+                case "--realtime" -> realtime = true;
+                case "--grammar" -> grammar = true;
+                case "--quiet" -> quiet = true;
+                default -> {
+                    if (script == null) script = new File(args[i]);
+                    else audio.add(new File(args[i]));
+                }
+            }
+        }
+        if (script == null || audio.isEmpty()) {
+            System.err.println("usage: --replay <script> <audio.wav|audio.pcm>... [--model <dir>] [--grammar] [--realtime] [--quiet]");
+            return 2;
+        }
+        try {
+            ScriptTokens tokens = ScriptTokens.tokenize(ScriptExtractor.extractText(script));
+            long t0 = System.nanoTime();
+            Model model = SpeechRecognizer.sharedModel(modelPath);
+            System.out.printf("Replay: %d script words, model %s loaded in %.0f ms%n",
+                tokens.size(), modelPath, (System.nanoTime() - t0) / 1e6);
+            ReplayRunner runner = new ReplayRunner(tokens, model);
+            runner.realtime = realtime;
+            runner.quiet = quiet;
+            // script vocabulary only, as with -Dpromptme.grammar in the app
+            if (grammar) runner.grammar = VocabularyGrammar.build(tokens);
+            for (File f : audio) runner.replay(f);
+            return 0;
+        } catch (IOException | UnsupportedAudioFileException e) {
+            System.err.println("Replay failed");
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    private void replay(File file) throws IOException, UnsupportedAudioFileException {
+        ScriptFollower follower = new ScriptFollower();
+        follower.setTokens(tokens);
+        HypothesisTracker tracker = new HypothesisTracker();
+        lags.clear();
+        emitted = moved = audioBytes = 0;
+
+        // word timings of the hypothesis the tracker is looking at, and how many it emitted so far
+        JSONArray[] timing = {new JSONArray()};
+        int[] uttWord = {0};
+        Consumer<String> emit = w -> {
+            double audioNow = audioBytes / (2.0 * AudioSettings.VOSK_RATE);
+            double end = uttWord[0] < timing[0].length()
+                ? timing[0].getJSONObject(uttWord[0]).optDouble("end", Double.NaN) : Double.NaN;
+            uttWord[0]++;
+            double lagMs = Double.isNaN(end) ? Double.NaN : (audioNow - end) * 1000;
+            if (!Double.isNaN(lagMs)) lags.add(lagMs);
+            emitted++;
+            int idx = follower.accept(w);
+            if (idx >= 0) moved++;
+            if (!quiet) {
+                int pos = follower.getPosition();
+                System.out.printf(Locale.ROOT, "%s\t%.3f\t%.3f\t%.0f\t%s\t%d\t%s%n", file.getName(), end, audioNow,
+                    lagMs, w, idx, pos < tokens.size() ? tokens.word(pos) : "");
+            }
+        };
+
+        long wallStart = System.nanoTime();
+        try (Recognizer rec = grammar != null
+                 ? new Recognizer(model, AudioSettings.VOSK_RATE, grammar)
+                 : new Recognizer(model, AudioSettings.VOSK_RATE);
+             InputStream in = open(file)) {
+            rec.setWords(true);
+            rec.setPartialWords(true);
+            byte[] chunk = new byte[settings.chunkBytes(AudioSettings.VOSK_RATE, 1)];
+            int len;
+            while ((len = in.readNBytes(chunk, 0, chunk.length)) > 0) {
+                audioBytes += len;
+                if (realtime) pace(wallStart);
+                if (rec.acceptWaveForm(chunk, len)) {
+                    JSONObject o = new JSONObject(rec.getResult());
+                    timing[0] = timings(o, "result");
+                    tracker.acceptFinal(o.optString("text",""), emit);
+                    uttWord[0] = 0;
+                } else {
+                    JSONObject o = new JSONObject(rec.getPartialResult());
+                    timing[0] = timings(o, "partial_result");
+                    tracker.acceptPartial(o.optString("partial",""), emit);
+                }
+            }
+            JSONObject o = new JSONObject(rec.getFinalResult());
+            timing[0] = timings(o, "result");
+            tracker.acceptFinal(o.optString("text",""), emit);
+        }
+        double wall = (System.nanoTime() - wallStart) / 1e9;
+        double audioSec = audioBytes / (2.0 * AudioSettings.VOSK_RATE);
+        double[] sorted = lags.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        System.out.printf(Locale.ROOT,
+            "Replay %s (%s vocabulary): %.1f s audio in %.2f s (real-time factor %.3f), %d words, %.1f words/s, "
+            + "%d moves (%.0f%% match rate), final position %d/%d, lag mean %.0f ms p50 %.0f ms p95 %.0f ms%n",
+            file.getName(), grammar != null ? "script" : "open", audioSec, wall, wall / Math.max(audioSec, 1e-9),
+            emitted, emitted / Math.max(wall, 1e-9),
+            moved, emitted == 0 ? 0.0 : 100.0 * moved / emitted, follower.getPosition(), tokens.size(),
+            Arrays.stream(sorted).average().orElse(Double.NaN), percentile(sorted, 0.5), percentile(sorted, 0.95));
+    }
+
+    // 16 kHz mono 16-bit little-endian, converting whatever the file holds
+    private InputStream open(File file) throws IOException, UnsupportedAudioFileException {
+        if (file.getName().toLowerCase(Locale.ROOT).endsWith(".pcm")) {
+            return new BufferedInputStream(Files.newInputStream(file.toPath()));
+        }
+        AudioInputStream ais = AudioSystem.getAudioInputStream(file);
+        AudioFormat f = ais.getFormat();
+        int channels = f.getChannels();
+        AudioFormat pcm = new AudioFormat(f.getSampleRate(), 16, channels, true, false);
+        if (!f.matches(pcm)) ais = AudioSystem.getAudioInputStream(pcm, ais);
+        int rate = Math.round(f.getSampleRate());
+        if (rate == AudioSettings.VOSK_RATE && channels == 1) return ais;
+        return new ResampledStream(ais, new Resampler(rate, channels, AudioSettings.VOSK_RATE), channels);
+    }
+
+    private void pace(long wallStart) {
+        long due = wallStart + audioBytes * 1_000_000_000L / (2L * AudioSettings.VOSK_RATE);
+        long wait = due - System.nanoTime();
+        if (wait > 0) LockSupport.parkNanos(wait);
+    }
+
+    private static JSONArray timings(JSONObject o, String key) {
+        JSONArray a = o.optJSONArray(key);
+        return a != null ? a : new JSONArray();
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) return Double.NaN;
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+
+    // Pulls native-rate frames through the Resampler on demand
+    private static final class ResampledStream extends InputStream {
+        private final InputStream in;
+        private final Resampler resampler;
+        private final byte[] raw;
+        private final byte[] out;
+        private int pos, limit;
+
+        ResampledStream(InputStream in, Resampler resampler, int channels) {
+            this.in = in;
+            this.resampler = resampler;
+            this.raw = new byte[4096 * 2 * channels];
+            this.out = new byte[resampler.maxOutputBytes(raw.length)];
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (pos == limit) {
+                int n = in.readNBytes(raw, 0, raw.length);
+                if (n <= 0) return -1;
+                pos = 0;
+                limit = resampler.process(raw, n, out);
+            }
+            int k = Math.min(len, limit - pos);
+            System.arraycopy(out, pos, b, off, k);
+            pos += k;
+            return k;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
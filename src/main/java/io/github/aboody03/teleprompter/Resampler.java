@@ -0,0 +1,90 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.Arrays;
+
+/*
+ * Streaming 16-bit PCM converter from a device's native rate / channel count
+ * to Vosk's 16 kHz mono. Channels are averaged, then, when downsampling, run
+ * through a windowed-sinc low-pass at the output's Nyquist frequency so
+ * 8-12 kHz content doesn't alias into the speech band; samples are then
+ * linearly interpolated. The filter history, the last filtered sample and the
+ * fractional read position carry over between chunks so chunk boundaries
+ * don't click. No allocation per call once the chunk size is known.
+ */
+public final class Resampler {
+    private final int channels;
+    private final double step;  // input frames per output frame
+    private final float[] taps; // low-pass FIR, empty when not downsampling
+    private float[] x;          // taps.length - 1 frames of history, then the current chunk (mono)
+    private double pos;         // next output position, relative to the current chunk (-1 = carried sample)
+    private float prev;
+
+    public Resampler(int inRate, int channels, int outRate) {
+        this.channels = channels;
+        this.step = (double) inRate / outRate;
+        // passband to ~0.75 of the output Nyquist, stopband past ~1.25: what aliases lands above the passband
+        taps = step > 1 ? lowPass(0.5 / step, 2 * (int) Math.ceil(11 * step) + 1) : new float[0];
+        x = new float[Math.max(0, taps.length - 1)];
+    }
+
+    // Largest output a chunk of inBytes can produce
+    public int maxOutputBytes(int inBytes) {
+        return 2 * ((int) Math.ceil(inBytes / (2.0 * channels) / step) + 1);
+    }
+
+    // Converts len bytes of little-endian input into out; returns the bytes written
+    public int process(byte[] in, int len, byte[] out) {
+        int frames = len / (2 * channels);
+        if (frames == 0) return 0;
+        int h = Math.max(0, taps.length - 1);
+        if (x.length < h + frames) x = Arrays.copyOf(x, h + frames);
+        for (int f = 0; f < frames; f++) x[h + f] = sample(in, f);
+        int o = 0;
+        while (pos < frames - 1) {
+            int i = (int) Math.floor(pos);
+            double frac = pos - i;
+            float a = i < 0 ? prev : filtered(h + i);
+            int s = (int) Math.round(a + (filtered(h + i + 1) - a) * frac);
+            s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, s));
+            out[o++] = (byte) s;
+            out[o++] = (byte) (s >> 8);
+            pos += step;
+        }
+        pos -= frames;
+        prev = filtered(h + frames - 1);
+        System.arraycopy(x, frames, x, 0, h);
+        return o;
+    }
+
+    // Causal FIR output at x[k]; the constant group delay of (taps - 1) / 2 input frames is harmless
+    private float filtered(int k) {
+        if (taps.length == 0) return x[k];
+        float sum = 0;
+        for (int j = 0; j < taps.length; j++) sum += taps[j] * x[k - j];
+        return sum;
+    }
+
+    private int sample(byte[] in, int frame) {
+        int sum = 0;
+        for (int c = 0, p = frame * 2 * channels; c < channels; c++, p += 2) {
+            sum += (short) ((in[p] & 0xFF) | (in[p+1] << 8));
+        }
+        return sum / channels;
+    }
+
+    // Blackman-windowed sinc, cutoff in cycles per input sample, unity gain at DC
+    static float[] lowPass(double cutoff, int n) {
+        double[] h = new double[n];
+        double m = n - 1, sum = 0;
+        for (int i = 0; i < n; i++) {
+            double t = i - m / 2;
+            double sinc = t == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * t) / (Math.PI * t);
+            double w = 0.42 - 0.5 * Math.cos(2 * Math.PI * i / m) + 0.08 * Math.cos(4 * Math.PI * i / m);
+            h[i] = sinc * w;
+            sum += h[i];
+        }
+        float[] taps = new float[n];
+        for (int i = 0; i < n; i++) taps[i] = (float) (h[i] / sum);
+        return taps;
+    }
+}
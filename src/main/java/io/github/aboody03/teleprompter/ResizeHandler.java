@@ -1,17 +1,37 @@
 package io.github.aboody03.teleprompter;
 
+import java.util.function.Consumer;
+
+import javafx.animation.AnimationTimer;
 import javafx.scene.Cursor;
 import javafx.scene.Scene;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.Stage;
 
+/*
+ * Moves and resizes the undecorated window by dragging its body and edges.
+ * Mouse events arrive far more often than frames, so drags only record the
+ * target bounds and an AnimationTimer applies the latest ones once per
+ * pulse. onResizing hears true when an edge drag starts and false once it is
+ * released, so expensive content (the script's reflow) can wait for it.
+ */
 public class ResizeHandler {
     private static final double MARGIN = 8;
     private static final double MIN_W = 200;
     private static final double MIN_H = 100;
 
     public static void install(Scene scene, Stage stage) {
+        install(scene, stage, resizing -> {});
+    }
+
+    public static void install(Scene scene, Stage stage, Consumer<Boolean> onResizing) {
         DragData drag = new DragData();
+        AnimationTimer applier = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                apply(stage, drag);
+            }
+        };
 
         // change cursor on edges/corners
         scene.setOnMouseMoved(e -> {
@@ -40,6 +60,14 @@ public class ResizeHandler {
                 drag.stageY = stage.getY();
                 drag.stageW = stage.getWidth();
                 drag.stageH = stage.getHeight();
+                drag.targetX = drag.stageX;
+                drag.targetY = drag.stageY;
+                drag.targetW = drag.stageW;
+                drag.targetH = drag.stageH;
+                drag.pending = false;
+                drag.resizing = scene.getCursor() != null && scene.getCursor() != Cursor.DEFAULT;
+                if (drag.resizing) onResizing.accept(true);
+                applier.start();
             }
         });
 
@@ -53,40 +81,57 @@ public class ResizeHandler {
 
             // 1) move
             if (c == Cursor.DEFAULT) {
-                stage.setX(drag.stageX + dx);
-                stage.setY(drag.stageY + dy);
+                drag.targetX = drag.stageX + dx;
+                drag.targetY = drag.stageY + dy;
 
             // 2) horizontal resize
             } else {
                 if (c == Cursor.E_RESIZE || c == Cursor.SE_RESIZE || c == Cursor.NE_RESIZE) {
                     double nw = drag.stageW + dx;
-                    if (nw >= MIN_W) stage.setWidth(nw);
+                    if (nw >= MIN_W) drag.targetW = nw;
                 }
                 if (c == Cursor.W_RESIZE || c == Cursor.SW_RESIZE || c == Cursor.NW_RESIZE) {
                     double nw = drag.stageW - dx, nx = drag.stageX + dx;
                     if (nw >= MIN_W) {
-                        stage.setX(nx);
-                        stage.setWidth(nw);
+                        drag.targetX = nx;
+                        drag.targetW = nw;
                     }
                 }
                 // 3) vertical resize
                 if (c == Cursor.S_RESIZE || c == Cursor.SE_RESIZE || c == Cursor.SW_RESIZE) {
                     double nh = drag.stageH + dy;
-                    if (nh >= MIN_H) stage.setHeight(nh);
+                    if (nh >= MIN_H) drag.targetH = nh;
                 }
                 if (c == Cursor.N_RESIZE || c == Cursor.NE_RESIZE || c == Cursor.NW_RESIZE) {
                     double nh = drag.stageH - dy, ny = drag.stageY + dy;
                     if (nh >= MIN_H) {
-                        stage.setY(ny);
-                        stage.setHeight(nh);
+                        drag.targetY = ny;
+                        drag.targetH = nh;
                     }
                 }
             }
+            drag.pending = true;
         });
 
-        // reset cursor after drag
-        scene.addEventFilter(MouseEvent.MOUSE_RELEASED, e ->
-            scene.setCursor(Cursor.DEFAULT)
-        );
+        // land on the final bounds, then reset cursor after drag
+        scene.addEventFilter(MouseEvent.MOUSE_RELEASED, e -> {
+            applier.stop();
+            apply(stage, drag);
+            if (drag.resizing) {
+                drag.resizing = false;
+                onResizing.accept(false);
+            }
+            scene.setCursor(Cursor.DEFAULT);
+        });
+    }
+
+    // Only the bounds that changed, so a move never touches the size (and the layout)
+    private static void apply(Stage stage, DragData drag) {
+        if (!drag.pending) return;
+        drag.pending = false;
+        if (stage.getX() != drag.targetX) stage.setX(drag.targetX);
+        if (stage.getY() != drag.targetY) stage.setY(drag.targetY);
+        if (stage.getWidth() != drag.targetW) stage.setWidth(drag.targetW);
+        if (stage.getHeight() != drag.targetH) stage.setHeight(drag.targetH);
     }
 }
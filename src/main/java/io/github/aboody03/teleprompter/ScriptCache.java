@@ -0,0 +1,162 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/*
+ * On-disk cache of tokenized scripts so re-opening the same document skips
+ * POI / PDFBox entirely. Entries are keyed by the SHA-256 of the file content
+ * plus its extension, hold just the word list (normalization is redone on load
+ * so homophone changes apply) and are read through a memory map. The directory
+ * is kept under a byte budget by evicting the least recently used entries.
+ */
+public class ScriptCache {
+    private static final int MAGIC = 0x50534331; // "PSC1"
+    private static final String SUFFIX = ".words";
+
+    private final Path dir;
+    private final long maxBytes;
+    private long hits, misses;
+
+    public ScriptCache(Path dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    // -Dpromptme.cache.dir / -Dpromptme.cache.maxMB, defaulting to ~/.promptme/cache and 64 MB
+    public static ScriptCache openDefault() {
+        Path dir = Path.of(System.getProperty("promptme.cache.dir",
+            Path.of(System.getProperty("user.home"), ".promptme", "cache").toString()));
+        long maxMb = Long.getLong("promptme.cache.maxMB", 64);
+        return new ScriptCache(dir, maxMb * 1024 * 1024);
+    }
+
+    public static String keyOf(File file) throws IOException {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int n;
+            while ((n = in.read(buf)) > 0) sha.update(buf, 0, n);
+        }
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        String ext = name.substring(name.lastIndexOf('.') + 1);
+        return HexFormat.of().formatHex(sha.digest()) + "-" + ext;
+    }
+
+    // Cached words for this key, or null on a miss (or an unreadable entry)
+    public synchronized String[] get(String key) {
+        Path entry = dir.resolve(key + SUFFIX);
+        if (!Files.isRegularFile(entry)) {
+            misses++;
+            return null;
+        }
+        try (FileChannel ch = FileChannel.open(entry, StandardOpenOption.READ)) {
+            MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (in.getInt() != MAGIC) throw new IOException("Bad cache entry "+entry);
+            String[] words = new String[in.getInt()];
+            byte[] utf = new byte[256];
+            for (int i = 0; i < words.length; i++) {
+                int len = in.getShort() & 0xFFFF;
+                if (len > utf.length) utf = new byte[Math.max(len, utf.length * 2)];
+                in.get(utf, 0, len);
+                words[i] = new String(utf, 0, len, StandardCharsets.UTF_8);
+            }
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits++;
+            return words;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Dropping unreadable cache entry "+entry);
+            e.printStackTrace();
+            delete(entry);
+            misses++;
+            return null;
+        }
+    }
+
+    public synchronized void put(String key, ScriptTokens tokens) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(tokens.size() * 8);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(MAGIC);
+                out.writeInt(tokens.size());
+                for (int i = 0; i < tokens.size(); i++) {
+                    byte[] utf = tokens.word(i).getBytes(StandardCharsets.UTF_8);
+                    int len = Math.min(utf.length, 0xFFFF);
+                    out.writeShort(len);
+                    out.write(utf, 0, len);
+                }
+            }
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            Files.move(tmp, dir.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            evict();
+        } catch (IOException e) {
+            System.err.println("Failed to cache script "+key);
+            e.printStackTrace();
+        }
+    }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long sizeBytes() {
+        long total = 0;
+        for (Path p : entries()) total += p.toFile().length();
+        return total;
+    }
+
+    private void evict() {
+        List<Path> all = entries();
+        long total = 0;
+        for (Path p : all) total += p.toFile().length();
+        all.sort(Comparator.comparingLong(p -> p.toFile().lastModified()));
+        for (int i = 0; i < all.size() && total > maxBytes; i++) {
+            total -= all.get(i).toFile().length();
+            delete(all.get(i));
+        }
+    }
+
+    private List<Path> entries() {
+        if (!Files.isDirectory(dir)) return new ArrayList<>();
+        try (Stream<Path> s = Files.list(dir)) {
+            return new ArrayList<>(s.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    private static void delete(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+// Streams the text of .txt / .docx / .doc / .pdf scripts; no JavaFX, so headless tools can use it too
+public final class ScriptExtractor {
+    // Receives extracted text in document order (words may straddle chunks); returns false to stop early
+    public interface TextSink {
+        boolean accept(CharSequence chunk, long done, long total);
+    }
+
+    private ScriptExtractor() {}
+
+    public static String extractText(File file) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        extract(file, (chunk, done, total) -> {
+            sb.append(chunk);
+            return true;
+        });
+        return sb.toString();
+    }
+
+    public static void extract(File file, TextSink sink) throws IOException {
+        String name = file.getName().toLowerCase();
+        if (name.endsWith(".txt")) {
+            long total = Math.max(1, Files.size(file.toPath())), done = 0;
+            char[] buf = new char[16 * 1024];
+            try (BufferedReader r = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                int n;
+                while ((n = r.read(buf)) > 0) {
+                    done += n;
+                    // a word cut between two reads is carried over by the tokenizer
+                    if (!sink.accept(CharBuffer.wrap(buf, 0, n), Math.min(done, total), total)) return;
+                }
+            }
+        } else if (name.endsWith(".docx")) {
+            try (var doc = new org.apache.poi.xwpf.usermodel.XWPFDocument(Files.newInputStream(file.toPath()))) {
+                var body = doc.getBodyElements();
+                for (int i = 0; i < body.size(); i++) {
+                    String text = "";
+                    if (body.get(i) instanceof org.apache.poi.xwpf.usermodel.XWPFParagraph p) text = p.getText();
+                    else if (body.get(i) instanceof org.apache.poi.xwpf.usermodel.XWPFTable t) text = t.getText();
+                    if (!sink.accept(text + "\n", i + 1, body.size())) return;
+                }
+            }
+        } else if (name.endsWith(".doc")) {
+            try (var fis = Files.newInputStream(file.toPath());
+                 var doc = new org.apache.poi.hwpf.HWPFDocument(fis);
+                 var ext = new org.apache.poi.hwpf.extractor.WordExtractor(doc)) {
+                String[] paragraphs = ext.getParagraphText();
+                for (int i = 0; i < paragraphs.length; i++) {
+                    if (!sink.accept(paragraphs[i] + "\n", i + 1, paragraphs.length)) return;
+                }
+            }
+        } else if (name.endsWith(".pdf")) {
+            try (var pd = org.apache.pdfbox.pdmodel.PDDocument.load(file)) {
+                var stripper = new org.apache.pdfbox.text.PDFTextStripper();
+                int pages = pd.getNumberOfPages();
+                for (int p = 1; p <= pages; p++) {
+                    stripper.setStartPage(p);
+                    stripper.setEndPage(p);
+                    if (!sink.accept(stripper.getText(pd) + "\n", p, pages)) return;
+                }
+            }
+        }
+    }
+}
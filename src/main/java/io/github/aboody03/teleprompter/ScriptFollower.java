@@ -0,0 +1,174 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.Arrays;
+
+/*
+ * Follows the speaker through the script by aligning the last few heard words
+ * against a window around the current position (local alignment, banded to the
+ * window). Skipped script words and ad-libbed heard words cost a gap instead of
+ * stalling the cursor, and each heard word costs at most history x window cells.
+ * When the window has nothing, an n-gram index over the whole script re-locates
+ * a speaker who jumped elsewhere. Pure Java so it can be driven headless from
+ * recorded transcripts.
+ */
+public class ScriptFollower {
+    public static final int DEFAULT_BEHIND = 24;
+    public static final int DEFAULT_AHEAD = 64;
+    public static final int DEFAULT_HISTORY = 8;
+
+    private static final int MATCH = 4, SOUND_ALIKE = 1, MISMATCH = -2, GAP = -2;
+    private static final int NEAR = 3;
+    // Leaving the next few words needs roughly three agreeing words, not one lucky hit
+    private static final int JUMP_SCORE = 3*MATCH + GAP;
+
+    private final int behind, ahead, history;
+    private final String[] heard;
+    private final int[] heardGroup, heardKey, heardTerm;
+    private final int[] prevRow, currRow;
+    private int heardCount;
+
+    private ScriptTokens tokens = ScriptTokens.EMPTY;
+    private NgramIndex index = NgramIndex.build(ScriptTokens.EMPTY);
+    private int position;
+    private long words, moves, cells, resyncs;
+
+    public ScriptFollower() {
+        this(DEFAULT_BEHIND, DEFAULT_AHEAD, DEFAULT_HISTORY);
+    }
+
+    public ScriptFollower(int behind, int ahead, int history) {
+        if (behind < 0 || ahead < 1 || history < 1) {
+            throw new IllegalArgumentException("bad follower window: "+behind+"/"+ahead+"/"+history);
+        }
+        this.behind = behind;
+        this.ahead = ahead;
+        this.history = history;
+        heard = new String[history];
+        heardGroup = new int[history];
+        heardKey = new int[history];
+        heardTerm = new int[history];
+        prevRow = new int[behind + ahead + 2];
+        currRow = new int[behind + ahead + 2];
+    }
+
+    public void setTokens(ScriptTokens newTokens) {
+        setScript(newTokens, NgramIndex.build(newTokens));
+    }
+
+    public synchronized void setScript(ScriptTokens newTokens, NgramIndex newIndex) {
+        tokens = newTokens;
+        index = newIndex;
+        DebugLog.printf("N-gram index: %d words, %d entries, %.2f ms, %d KB%n",
+            newTokens.size(), index.size(), index.getBuildNanos() / 1e6, index.estimateBytes() / 1024);
+        setPosition(0);
+    }
+
+    // A longer version of the same script (streamed import): position and context survive
+    public synchronized void extend(ScriptTokens newTokens, NgramIndex newIndex) {
+        tokens = newTokens;
+        index = newIndex;
+    }
+
+    // Manual jumps (click, spacebar) restart the heard context
+    public synchronized void setPosition(int idx) {
+        position = idx;
+        heardCount = 0;
+    }
+
+    public synchronized int getPosition() { return position; }
+
+    // Feeds one recognized word; returns the new script position, or -1 if it stays put
+    public synchronized int accept(String spoken) {
+        words++;
+        push(ScriptTokens.normalize(spoken));
+        int n = tokens.size();
+        if (n == 0) return -1;
+
+        int from = Math.max(0, position - behind);
+        int to = Math.min(n, position + 1 + ahead);
+        int w = to - from;
+        int h = Math.min(heardCount, history);
+
+        // rows are script positions from..to-1, shifted by one for the empty prefix
+        Arrays.fill(prevRow, 0, w + 1, 0);
+        int[] prev = prevRow, curr = currRow;
+        for (int i = 0; i < h; i++) {
+            int slot = (heardCount - h + i) % history;
+            curr[0] = 0;
+            for (int j = 1; j <= w; j++) {
+                int s = prev[j-1] + score(slot, from + j - 1);
+                s = Math.max(s, prev[j] + GAP);
+                s = Math.max(s, curr[j-1] + GAP);
+                curr[j] = Math.max(0, s);
+            }
+            cells += w;
+            int[] tmp = prev; prev = curr; curr = tmp;
+        }
+
+        // the newest word must itself match where we land
+        int last = (heardCount - 1) % history;
+        int best = -1, bestScore = Integer.MIN_VALUE;
+        for (int j = 1; j <= w; j++) {
+            int idx = from + j - 1;
+            if (idx == position || !tokens.matches(idx, heard[last], heardGroup[last])) continue;
+            int score = prev[j];
+            boolean near = idx > position && idx <= position + NEAR;
+            if (!near) {
+                score -= idx > position ? (idx - position) / 16 : (position - idx) / 8;
+                if (score < JUMP_SCORE) continue;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = idx;
+            }
+        }
+        // weak local evidence: a trigram elsewhere in the script outranks it
+        if (best < 0 || bestScore < JUMP_SCORE) {
+            int jump = resync(best < 0);
+            if (jump >= 0) best = jump;
+        }
+        if (best < 0) return -1;
+        position = best;
+        moves++;
+        return best;
+    }
+
+    public synchronized long getWordCount() { return words; }
+
+    public synchronized long getMoveCount() { return moves; }
+
+    public synchronized long getCellCount() { return cells; }
+
+    public synchronized long getResyncCount() { return resyncs; }
+
+    public synchronized NgramIndex getIndex() { return index; }
+
+    // Trigram anywhere in the script (nearest to the old position wins), or a bigram that occurs only once
+    private int resync(boolean allowBigram) {
+        int h = Math.min(heardCount, history);
+        if (h < 2) return -1;
+        int c = heardTerm[(heardCount - 1) % history];
+        int b = heardTerm[(heardCount - 2) % history];
+        int best = -1;
+        if (h >= 3) best = index.nearest(heardTerm[(heardCount - 3) % history], b, c, position);
+        if (best < 0 && allowBigram && index.count(-1, b, c, 2) == 1) best = index.nearest(-1, b, c, position);
+        if (best >= 0) resyncs++;
+        return best;
+    }
+
+    private void push(String word) {
+        int slot = heardCount % history;
+        heard[slot] = word;
+        heardGroup[slot] = HomophoneUtils.groupOf(word);
+        heardKey[slot] = ScriptTokens.phoneticKey(word);
+        heardTerm[slot] = index.termOf(word, heardGroup[slot]);
+        heardCount++;
+        // keep the counter small but preserve the ring position
+        if (heardCount >= 2 * history) heardCount -= history;
+    }
+
+    private int score(int slot, int idx) {
+        if (tokens.matches(idx, heard[slot], heardGroup[slot])) return MATCH;
+        return heardKey[slot] != 0 && heardKey[slot] == tokens.phonetic(idx) ? SOUND_ALIKE : MISMATCH;
+    }
+}
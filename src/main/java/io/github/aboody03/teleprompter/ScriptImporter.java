@@ -0,0 +1,152 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+/*
+ * Runs POI / PDFBox extraction and tokenization on a background thread. Text is
+ * streamed page by page (PDF) or paragraph by paragraph (Word) into an
+ * incremental tokenizer: the first chunk is shown as soon as it is tokenized
+ * and the rest is appended as it arrives. Documents seen before come straight
+ * from the ScriptCache. Starting a new import or calling discard() drops the
+ * one in flight; cancel() stops it but keeps what it already showed.
+ */
+public class ScriptImporter {
+    private static final long PUBLISH_INTERVAL_NANOS = 500_000_000L;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Script-Import");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ScriptCache cache;
+    // FX thread: the import in flight, the version of it on screen and where a truncated one goes
+    private Task<LoadedScript> running;
+    private LoadedScript shown;
+    private Consumer<LoadedScript> onStopped;
+
+    public ScriptImporter() {
+        this(ScriptCache.openDefault());
+    }
+
+    public ScriptImporter(ScriptCache cache) {
+        this.cache = cache;
+    }
+
+    public ScriptCache getCache() { return cache; }
+
+    /*
+     * onShow gets the first promptable version of the script (replacing the old
+     * one), onExtend every later, longer version including the final one. If
+     * the import is cancelled or fails after onShow, onStopped gets the version
+     * on screen, which is then all there is of the script.
+     */
+    public Task<LoadedScript> load(File file, Consumer<LoadedScript> onShow, Consumer<LoadedScript> onExtend,
+                                   Consumer<LoadedScript> onStopped) {
+        discard();
+        this.onStopped = onStopped;
+        Task<LoadedScript> task = new Task<>() {
+            private long tokenizeNanos, indexNanos, firstShownNanos = -1, lastPublish;
+            // last published version; each snapshot only indexes the words after it
+            private LoadedScript last;
+
+            @Override
+            protected LoadedScript call() throws Exception {
+                updateMessage("Reading "+file.getName());
+                long t0 = System.nanoTime();
+                String key = ScriptCache.keyOf(file);
+                String[] cached = cache.get(key);
+                if (cached != null) {
+                    LoadedScript loaded = index(ScriptTokens.of(cached), true);
+                    DebugLog.printf("Import %s: cache hit, %d words in %.1f ms (cache %d hits / %d misses)%n",
+                        file.getName(), cached.length, (System.nanoTime() - t0)/1e6, cache.getHits(), cache.getMisses());
+                    return loaded;
+                }
+
+                ScriptTokens.Builder builder = new ScriptTokens.Builder();
+                ScriptExtractor.extract(file, (chunk, done, total) -> {
+                    if (isCancelled()) return false;
+                    long a = System.nanoTime();
+                    builder.append(chunk);
+                    tokenizeNanos += System.nanoTime() - a;
+                    updateProgress(done, total);
+                    if (firstShownNanos < 0 ? builder.size() > 0 : a - lastPublish > PUBLISH_INTERVAL_NANOS) {
+                        publish(builder.snapshot());
+                        if (firstShownNanos < 0) firstShownNanos = System.nanoTime() - t0;
+                        lastPublish = System.nanoTime();
+                    }
+                    return true;
+                });
+                if (isCancelled()) return null;
+
+                ScriptTokens tokens = builder.build();
+                LoadedScript loaded = index(tokens, true);
+                cache.put(key, tokens);
+                long total = System.nanoTime() - t0;
+                DebugLog.printf("Import %s: extract %.1f ms, tokenize %.1f ms (%d words), index %.1f ms, first words after %.1f ms%n",
+                    file.getName(), (total - tokenizeNanos - indexNanos)/1e6, tokenizeNanos/1e6, tokens.size(),
+                    indexNanos/1e6, (firstShownNanos < 0 ? total : firstShownNanos)/1e6);
+                return loaded;
+            }
+
+            private LoadedScript index(ScriptTokens tokens, boolean complete) {
+                long a = System.nanoTime();
+                LoadedScript loaded = last == null ? LoadedScript.of(file.getName(), tokens, complete)
+                    : LoadedScript.extend(last, tokens, complete);
+                last = loaded;
+                indexNanos += System.nanoTime() - a;
+                return loaded;
+            }
+
+            private void publish(ScriptTokens partial) {
+                LoadedScript loaded = index(partial, false);
+                Platform.runLater(() -> {
+                    if (running != this) return;
+                    (shown == null ? onShow : onExtend).accept(loaded);
+                    shown = loaded;
+                });
+            }
+        };
+        task.setOnSucceeded(e -> {
+            // a finished import can't be cancelled: drop it if a newer load or cancel() superseded it
+            if (running != task) return;
+            running = null;
+            (shown == null ? onShow : onExtend).accept(task.getValue());
+            shown = null;
+        });
+        task.setOnFailed(e -> {
+            System.err.println("Failed to import "+file);
+            task.getException().printStackTrace();
+            if (running == task) stopped();
+        });
+        running = task;
+        executor.submit(task);
+        return task;
+    }
+
+    // Stops the import in flight; pages it already showed stay and go to onStopped
+    public void cancel() {
+        if (running == null) return;
+        running.cancel(true);
+        stopped();
+    }
+
+    // Drops the import in flight without a word, for when another script replaces it
+    public void discard() {
+        if (running != null) running.cancel(true);
+        running = null;
+        shown = null;
+    }
+
+    private void stopped() {
+        LoadedScript partial = shown;
+        running = null;
+        shown = null;
+        if (partial != null) onStopped.accept(partial);
+    }
+}
@@ -0,0 +1,227 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/*
+ * Run of show: an ordered list of scripts where the next ones are parsed,
+ * tokenized and indexed on a background thread while the current one is
+ * being read, so switching is a swap instead of an import. Preloads look
+ * -Dpromptme.playlist.preload scripts ahead (default 2) and keep the one
+ * just read for going back, all within -Dpromptme.playlist.maxMB (default
+ * 64) of estimated heap, which includes the word widths the view measures
+ * for them ahead of time; whatever is outside that window or over budget is
+ * dropped and imported normally if it is needed.
+ *
+ * Preloading shares the ScriptCache with the importer. State changes are
+ * reported through onChange on the poster's thread (the FX thread in the app).
+ */
+public class ScriptPlaylist {
+    public static final String SUFFIX = ".playlist";
+
+    public enum State { QUEUED, LOADING, READY, SKIPPED, FAILED }
+
+    private static final class Slot {
+        final File file;
+        State state = State.QUEUED;
+        LoadedScript loaded;
+        long bytes;
+        long loadNanos;
+
+        Slot(File file) { this.file = file; }
+    }
+
+    private final List<Slot> slots = new ArrayList<>();
+    private final ScriptCache cache;
+    private final Consumer<Runnable> post;
+    private final int lookahead = Math.max(0, Integer.getInteger("promptme.playlist.preload", 2));
+    private final long budgetBytes = Math.max(1, Long.getLong("promptme.playlist.maxMB", 64)) * 1024 * 1024;
+    private final ExecutorService preloader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Playlist-Preload");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private int current = -1;
+    private long generation;
+    private Runnable onChange = () -> {};
+    private Consumer<LoadedScript> onReady = loaded -> {};
+
+    public ScriptPlaylist(List<File> files, ScriptCache cache, Consumer<Runnable> post) {
+        for (File f : files) slots.add(new Slot(f));
+        this.cache = cache;
+        this.post = post;
+    }
+
+    // One script path per line, relative to the playlist's folder; blank lines and '#' comments are skipped
+    public static List<File> read(File playlist) throws IOException {
+        Path base = playlist.toPath().toAbsolutePath().getParent();
+        List<File> files = new ArrayList<>();
+        for (String line : Files.readAllLines(playlist.toPath(), StandardCharsets.UTF_8)) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            files.add(base.resolve(line).toFile());
+        }
+        if (files.isEmpty()) throw new IOException("Playlist has no scripts: "+playlist);
+        return files;
+    }
+
+    public static boolean isPlaylist(File file) {
+        return file.getName().toLowerCase(Locale.ROOT).endsWith(SUFFIX);
+    }
+
+    public void setOnChange(Runnable handler) { onChange = handler; }
+
+    // Posted for each newly preloaded script, e.g. to warm the view's word measurements
+    public void setOnReady(Consumer<LoadedScript> handler) { onReady = handler; }
+
+    public synchronized int size() { return slots.size(); }
+
+    public synchronized int getCurrent() { return current; }
+
+    public synchronized File file(int i) { return slots.get(i).file; }
+
+    /*
+     * Makes script i current and returns it if it was preloaded; null means
+     * the caller imports file(i) itself. Either way preloading moves on to
+     * the scripts after it.
+     */
+    public synchronized LoadedScript select(int i) {
+        if (i < 0 || i >= slots.size()) return null;
+        current = i;
+        Slot s = slots.get(i);
+        LoadedScript loaded = s.state == State.READY ? s.loaded : null;
+        if (loaded == null) s.state = State.QUEUED;
+        schedule();
+        return loaded;
+    }
+
+    // Preloaded scripts still in the window (the view keeps its measurements for these)
+    public synchronized List<ScriptTokens> readyTokens() {
+        List<ScriptTokens> ready = new ArrayList<>();
+        for (Slot s : slots) if (s.state == State.READY) ready.add(s.loaded.tokens());
+        return ready;
+    }
+
+    public synchronized boolean isReady(LoadedScript loaded) {
+        for (Slot s : slots) if (s.state == State.READY && s.loaded == loaded) return true;
+        return false;
+    }
+
+    public synchronized long getPreloadedBytes() {
+        long total = 0;
+        for (Slot s : slots) if (s.state == State.READY) total += s.bytes;
+        return total;
+    }
+
+    public long getBudgetBytes() { return budgetBytes; }
+
+    // Short line for the control bar: position, next script's state and memory use
+    public synchronized String status() {
+        if (current < 0) return "";
+        String next = current + 1 < slots.size() ? slots.get(current + 1).state.name().toLowerCase(Locale.ROOT) : "end";
+        return String.format(Locale.ROOT, "%d/%d · next %s · %.1f/%d MB", current + 1, slots.size(), next,
+            getPreloadedBytes() / (1024.0 * 1024), budgetBytes / (1024 * 1024));
+    }
+
+    // One line per script, for the tooltip
+    public synchronized String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < slots.size(); i++) {
+            Slot s = slots.get(i);
+            sb.append(i == current ? "▶ " : "   ").append(i + 1).append(". ").append(s.file.getName())
+              .append("  ").append(i == current && s.state != State.READY ? "imported" : s.state.name().toLowerCase(Locale.ROOT));
+            if (s.state == State.READY) {
+                sb.append(String.format(Locale.ROOT, " (%d words, %.1f MB, %.0f ms)", s.loaded.tokens().size(),
+                    s.bytes / (1024.0 * 1024), s.loadNanos / 1e6));
+            }
+            if (i + 1 < slots.size()) sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    public void close() {
+        preloader.shutdownNow();
+    }
+
+    // Drops what left the window [current-1, current+lookahead] and queues what's missing in it, nearest first
+    private void schedule() {
+        long gen = ++generation;
+        for (int i = 0; i < slots.size(); i++) {
+            Slot s = slots.get(i);
+            if ((i < current - 1 || i > current + lookahead) && s.state != State.QUEUED) {
+                s.state = State.QUEUED;
+                s.loaded = null;
+                s.bytes = 0;
+            }
+        }
+        for (int d = 1; d <= lookahead; d++) submit(current + d, gen);
+        submit(current - 1, gen);
+        changed();
+    }
+
+    private void submit(int i, long gen) {
+        if (i < 0 || i >= slots.size() || slots.get(i).state != State.QUEUED) return;
+        preloader.submit(() -> preload(i, gen));
+    }
+
+    private void preload(int i, long gen) {
+        Slot s;
+        synchronized (this) {
+            s = slots.get(i);
+            // a later select() moved the window, or someone else got here first
+            if (gen != generation || s.state != State.QUEUED || i == current) return;
+            s.state = State.LOADING;
+        }
+        changed();
+        long t0 = System.nanoTime();
+        LoadedScript loaded;
+        try {
+            String key = ScriptCache.keyOf(s.file);
+            String[] cached = cache.get(key);
+            ScriptTokens tokens;
+            if (cached != null) {
+                tokens = ScriptTokens.of(cached);
+            } else {
+                tokens = ScriptTokens.tokenize(ScriptExtractor.extractText(s.file));
+                cache.put(key, tokens);
+            }
+            loaded = LoadedScript.of(s.file.getName(), tokens);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to preload "+s.file);
+            e.printStackTrace();
+            synchronized (this) {
+                if (s.state == State.LOADING) s.state = State.FAILED;
+            }
+            changed();
+            return;
+        }
+        long bytes = loaded.estimateBytes() + ScriptView.estimateWidthCacheBytes(loaded.tokens());
+        boolean ready;
+        synchronized (this) {
+            if (s.state != State.LOADING) return;
+            ready = getPreloadedBytes() + bytes <= budgetBytes;
+            s.state = ready ? State.READY : State.SKIPPED;
+            s.loaded = ready ? loaded : null;
+            s.bytes = ready ? bytes : 0;
+            s.loadNanos = System.nanoTime() - t0;
+        }
+        DebugLog.printf("Playlist: preloaded %s, %d words, %.1f MB in %.1f ms%s%n", s.file.getName(),
+            loaded.tokens().size(), bytes / (1024.0 * 1024), (System.nanoTime() - t0) / 1e6, ready ? "" : ", over budget");
+        if (ready) post.accept(() -> onReady.accept(loaded));
+        changed();
+    }
+
+    private void changed() {
+        post.accept(() -> onChange.run());
+    }
+}
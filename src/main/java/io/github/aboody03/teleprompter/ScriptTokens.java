@@ -0,0 +1,180 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Script tokenized once at load time. Each word keeps its display form plus the
+ * normalized form, homophone group and phonetic key the speech matcher needs,
+ * so matching a heard word never runs a regex or allocates.
+ */
+public final class ScriptTokens {
+    public static final ScriptTokens EMPTY = new ScriptTokens(new String[0], new String[0], new int[0], new int[0]);
+
+    private final String[] words;
+    private final String[] norm;
+    private final int[] group;
+    private final int[] phonetic;
+
+    private ScriptTokens(String[] words, String[] norm, int[] group, int[] phonetic) {
+        this.words = words;
+        this.norm = norm;
+        this.group = group;
+        this.phonetic = phonetic;
+    }
+
+    public static ScriptTokens tokenize(String text) {
+        return new Builder().append(text).build();
+    }
+
+    public static ScriptTokens of(String[] words) {
+        Builder b = new Builder();
+        for (String w : words) b.add(w);
+        return b.build();
+    }
+
+    /*
+     * Incremental tokenizer for streamed extraction: text arrives in chunks (a
+     * PDF page, a DOCX paragraph), a word split across chunks is carried over,
+     * and snapshot() hands out what is complete so far.
+     */
+    public static final class Builder {
+        private String[] words = new String[256];
+        private String[] norm = new String[256];
+        private int[] group = new int[256];
+        private int[] phonetic = new int[256];
+        private int size;
+        private final Map<String, Integer> seen = new HashMap<>();
+        private final StringBuilder carry = new StringBuilder();
+
+        public Builder append(CharSequence text) {
+            int start = 0;
+            for (int i = 0, n = text.length(); i < n; i++) {
+                if (!isSeparator(text.charAt(i))) continue;
+                if (i > start || carry.length() > 0) {
+                    carry.append(text, start, i);
+                    add(carry.toString());
+                    carry.setLength(0);
+                }
+                start = i + 1;
+            }
+            carry.append(text, start, text.length());
+            return this;
+        }
+
+        public Builder add(String word) {
+            if (size == words.length) grow();
+            String key = normalize(word);
+            Integer first = seen.putIfAbsent(key, size);
+            words[size] = word;
+            if (first != null) {
+                norm[size] = norm[first];
+                group[size] = group[first];
+                phonetic[size] = phonetic[first];
+            } else {
+                norm[size] = key;
+                group[size] = HomophoneUtils.groupOf(key);
+                phonetic[size] = phoneticKey(key);
+            }
+            size++;
+            return this;
+        }
+
+        public int size() { return size; }
+
+        // Complete words so far; a word still being carried over is left out
+        public ScriptTokens snapshot() {
+            return new ScriptTokens(Arrays.copyOf(words, size), Arrays.copyOf(norm, size),
+                Arrays.copyOf(group, size), Arrays.copyOf(phonetic, size));
+        }
+
+        public ScriptTokens build() {
+            if (carry.length() > 0) {
+                add(carry.toString());
+                carry.setLength(0);
+            }
+            return snapshot();
+        }
+
+        private void grow() {
+            int cap = words.length * 2;
+            words = Arrays.copyOf(words, cap);
+            norm = Arrays.copyOf(norm, cap);
+            group = Arrays.copyOf(group, cap);
+            phonetic = Arrays.copyOf(phonetic, cap);
+        }
+    }
+
+    public int size() { return words.length; }
+
+    public String word(int idx) { return words[idx]; }
+
+    public String[] words() { return words; }
+
+    public String norm(int idx) { return norm[idx]; }
+
+    public int group(int idx) { return group[idx]; }
+
+    public int phonetic(int idx) { return phonetic[idx]; }
+
+    // Rough heap footprint (preload budgets)
+    public long estimateBytes() {
+        long bytes = 16L * words.length + 8L * group.length;
+        for (int i = 0; i < words.length; i++) {
+            bytes += 40 + words[i].length();
+            if (norm[i] != words[i]) bytes += 40 + norm[i].length();
+        }
+        return bytes;
+    }
+
+    public boolean matches(int idx, String heard, int heardGroup) {
+        return HomophoneUtils.wordsMatch(heard, heardGroup, norm[idx], group[idx]);
+    }
+
+    // Trims, drops trailing punctuation and lowercases; replaces replaceAll("[\\W—]+$","")
+    public static String normalize(String raw) {
+        int start = 0, end = raw.length();
+        while (start < end && Character.isWhitespace(raw.charAt(start))) start++;
+        while (end > start && !isWordChar(raw.charAt(end-1))) end--;
+        boolean lower = true;
+        for (int i = start; i < end && lower; i++) {
+            lower = !Character.isUpperCase(raw.charAt(i));
+        }
+        String s = raw.substring(start, end);
+        return lower ? s : s.toLowerCase(Locale.ROOT);
+    }
+
+    // American Soundex packed into an int: first letter in the high bits, three digits below
+    public static int phoneticKey(String word) {
+        int key = 0, digits = 0, last = -1;
+        for (int i = 0; i < word.length() && digits < 3; i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') continue;
+            int code = SOUNDEX[c - 'a'];
+            if (key == 0) {
+                key = c << 12;
+                last = code;
+                continue;
+            }
+            if (code > 0 && code != last) {
+                key |= code << (8 - 4 * digits++);
+            }
+            if (c != 'h' && c != 'w') last = code;
+        }
+        return key;
+    }
+
+    private static final int[] SOUNDEX = {
+        0,1,2,3,0,1,2,0,0,2,2,4,5,5,0,1,2,6,2,3,0,1,0,2,0,2
+    };
+
+    private static boolean isSeparator(char c) {
+        return Character.isWhitespace(c) || c == '-' || c == '—';
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
@@ -0,0 +1,549 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.css.PseudoClass;
+import javafx.geometry.Insets;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.Region;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.util.Duration;
+
+/*
+ * Virtualized replacement for the old one-Text-per-word TextFlow.
+ * Words are measured once at a reference size and wrapped arithmetically;
+ * only the lines inside the scroll pane's viewport get (pooled) Text nodes.
+ * A word's slot is the wider of its regular and bold renderings, so the
+ * bold highlight never spills into the next word at its fixed offset.
+ */
+public final class ScriptView extends Region {
+    private static final double REF_SIZE = 100;
+    private static final double LINE_SPACING = 5;
+    private static final int OVERSCAN_LINES = 2;
+    private static final int PREMEASURE_BATCH = 500;
+    // Distinct words kept measured across scripts; past this the cache restarts with the next script
+    private static final int WIDTH_CACHE_LIMIT = 50_000;
+    // heap per cached width: map node, boxed Double, table slot (the key is the script's own String)
+    private static final int WIDTH_ENTRY_BYTES = 64;
+    private static final PseudoClass HIGHLIGHT = PseudoClass.getPseudoClass("highlight");
+    private static final PseudoClass NEAR = PseudoClass.getPseudoClass("near");
+
+    private static final Duration FONT_SETTLE = Duration.millis(100);
+    private static final Duration REFLOW_IDLE = Duration.millis(150);
+
+    private final DoubleProperty fontSize = new SimpleDoubleProperty(18);
+    private final PauseTransition fontSettle = new PauseTransition(FONT_SETTLE);
+    private boolean fontPending;
+    private double appliedSize = -1;
+    private final Text probe = new Text("Mg");
+    private final Text measure = new Text();
+    private final Text measureBold = new Text();
+    private final List<Text> pool = new ArrayList<>();
+    private final Map<String, Double> widthCache = new HashMap<>();
+
+    private volatile ScriptTokens tokens = ScriptTokens.EMPTY;
+    private String[] words = new String[0];
+    private double[] refWidths = new double[0];
+    private Font refFont;
+    private double refLineHeight;
+
+    // Geometry index, rebuilt only when the width, font size or script changes:
+    // per word its line and x offset within the line, per line its first word and width
+    private int[] lineStart = {0, 0};
+    private int[] lineOfWord = new int[0];
+    private double[] refX = new double[0];
+    private double[] lineRefWidth = new double[0];
+    private int lineCount;
+    private double wrapWidth = -1, wrapSize = -1;
+    // While a window resize is dragged, lines keep their wrap and only re-wrap on release or a pause
+    private boolean reflowDeferred;
+    private double deferredWidth = -1;
+    private final PauseTransition reflowIdle = new PauseTransition(REFLOW_IDLE);
+
+    private ScrollPane scroll;
+    private int firstShown, shownCount;
+    private int builtFirstLine = -1, builtLastLine = -1;
+    private double builtWidth = -1;
+    private int current = -1;
+    private IntConsumer onWordClicked = i -> {};
+
+    // Highlight cost: nodes touched and time spent by the most recent update
+    private int lastHighlightNodes;
+    private long lastHighlightNanos, highlightUpdates;
+    private final LatencyHistogram highlightTimes = new LatencyHistogram();
+
+    public ScriptView() {
+        probe.getStyleClass().add("teleprompter-word");
+        probe.setManaged(false);
+        probe.setVisible(false);
+        getChildren().add(probe);
+        setOnMouseClicked(e -> {
+            int idx = wordAt(e.getX(), e.getY());
+            if (idx >= 0) onWordClicked.accept(idx);
+        });
+        // Slider drags change the size every tick; re-wrap at most once per settle period
+        fontSize.addListener((obs,ov,nv) -> {
+            if (fontSettle.getStatus() == Animation.Status.RUNNING) {
+                fontPending = true;
+            } else {
+                applyFontSize();
+                fontSettle.playFromStart();
+            }
+        });
+        fontSettle.setOnFinished(e -> {
+            if (!fontPending) return;
+            fontPending = false;
+            applyFontSize();
+            fontSettle.playFromStart();
+        });
+        applyFontSize();
+        reflowIdle.setOnFinished(e -> reflow());
+    }
+
+    // One inline style on the view; the word nodes inherit the size through CSS
+    private void applyFontSize() {
+        double size = Math.round(fontSize.get());
+        if (size == appliedSize) return;
+        appliedSize = size;
+        setStyle("-fx-font-size: " + (int) size + "px;");
+        wrapSize = -1;
+        requestLayout();
+    }
+
+    public DoubleProperty fontSizeProperty() { return fontSize; }
+
+    public void setOnWordClicked(IntConsumer handler) { onWordClicked = handler; }
+
+    public int wordCount() { return words.length; }
+
+    public void setReflowDeferred(boolean deferred) {
+        if (reflowDeferred == deferred) return;
+        reflowDeferred = deferred;
+        if (!deferred) {
+            reflowIdle.stop();
+            reflow();
+        }
+    }
+
+    // Re-wrap at the current width now, even mid-drag
+    private void reflow() {
+        boolean deferred = reflowDeferred;
+        reflowDeferred = false;
+        ensureWrapped(getWidth());
+        reflowDeferred = deferred;
+        builtFirstLine = -1;
+        requestLayout();
+    }
+
+    // Safe to read from the recognizer thread; replaced wholesale on load
+    public ScriptTokens getTokens() { return tokens; }
+
+    public void setTokens(ScriptTokens newTokens) {
+        if (widthCache.size() > WIDTH_CACHE_LIMIT) widthCache.clear();
+        tokens = newTokens;
+        words = newTokens.words();
+        refWidths = new double[words.length];
+        if (refFont != null) measureWords();
+        current = -1;
+        wrapWidth = -1;
+        builtFirstLine = -1;
+        requestLayout();
+    }
+
+    /*
+     * Streamed import: newTokens starts with the words already shown. Only the
+     * new words are measured and wrapped (from the last line, which they may
+     * continue), and the highlight and the scroll position stay where they are.
+     */
+    public void appendTokens(ScriptTokens newTokens) {
+        int old = words.length;
+        if (newTokens.size() <= old) {
+            if (newTokens.size() < old) setTokens(newTokens);
+            return;
+        }
+        boolean wrapped = wrapWidth > 0 && wrapSize == appliedSize && !reflowDeferred;
+        int anchor = wrapped ? anchorWord() : -1;
+        double anchorY = anchor >= 0 ? anchorOffset(anchor) : 0;
+        tokens = newTokens;
+        words = newTokens.words();
+        refWidths = Arrays.copyOf(refWidths, words.length);
+        if (refFont != null) {
+            for (int i = old; i < words.length; i++) refWidths[i] = measureWidth(words[i]);
+        }
+        if (wrapped) {
+            wrapFrom(Math.max(0, lineCount - 1), availRefWidth(wrapWidth));
+            if (anchor >= 0) keepAnchor(anchor, anchorY);
+        } else {
+            wrapWidth = -1;
+        }
+        builtFirstLine = -1;
+        requestLayout();
+    }
+
+    // Follows the enclosing scroll pane so only visible lines get nodes
+    public void attach(ScrollPane pane) {
+        scroll = pane;
+        pane.vvalueProperty().addListener((obs,ov,nv) -> refreshViewport());
+        pane.viewportBoundsProperty().addListener((obs,ov,nv) -> refreshViewport());
+    }
+
+    // Only the old and new current/near words change state, whatever the script length
+    public void setCurrent(int idx) {
+        long t0 = System.nanoTime();
+        int prev = current, touched = 0;
+        current = idx;
+        for (int i = prev-1; i <= prev+1; i++) touched += refreshState(i);
+        for (int i = idx-1; i <= idx+1; i++) {
+            if (Math.abs(i - prev) > 1) touched += refreshState(i);
+        }
+        lastHighlightNodes = touched;
+        lastHighlightNanos = System.nanoTime() - t0;
+        highlightTimes.record(lastHighlightNanos);
+        highlightUpdates++;
+    }
+
+    public int getLastHighlightNodes() { return lastHighlightNodes; }
+
+    public long getLastHighlightNanos() { return lastHighlightNanos; }
+
+    public long getHighlightUpdates() { return highlightUpdates; }
+
+    public LatencyHistogram getHighlightTimes() { return highlightTimes; }
+
+    // Vvalue that centres the line holding word idx in a viewport of the given height
+    public double scrollFraction(int idx, double viewportHeight) {
+        ensureWrapped(getWidth());
+        if (idx < 0 || idx >= lineOfWord.length) return 0;
+        return fractionAt(lineOfWord[idx] + 0.5, viewportHeight);
+    }
+
+    /*
+     * Same for a fractional word position, moving through each line in
+     * proportion to the words read, so a continuously advancing position
+     * scrolls continuously. Arithmetic only; safe to call every frame.
+     */
+    public double smoothScrollFraction(double pos, double viewportHeight) {
+        ensureWrapped(getWidth());
+        if (lineCount == 0) return 0;
+        int idx = (int) Math.max(0, Math.min(words.length - 1, pos));
+        int line = lineOfWord[idx];
+        int a = lineStart[line], b = lineStart[line + 1];
+        double within = b > a ? Math.max(0, Math.min(1, (pos - a) / (b - a))) : 0.5;
+        return fractionAt(line + within, viewportHeight);
+    }
+
+    /*
+     * Inverse of smoothScrollFraction: the fractional word position at the
+     * centre of the viewport for a vvalue. Display sync sends this rather than
+     * the vvalue, which means a different place at another width or font size.
+     */
+    public double wordPositionAt(double vvalue, double viewportHeight) {
+        ensureWrapped(getWidth());
+        if (lineCount == 0) return 0;
+        double lineH = lineHeight();
+        double contentH = lineCount * lineH + snappedTopInset() + snappedBottomInset();
+        double y = Math.max(0, contentH - viewportHeight) * vvalue + viewportHeight / 2;
+        double lineF = (y - snappedTopInset()) / lineH;
+        int line = (int) Math.max(0, Math.min(lineCount - 1, Math.floor(lineF)));
+        double within = Math.max(0, Math.min(1, lineF - line));
+        return lineStart[line] + within * (lineStart[line + 1] - lineStart[line]);
+    }
+
+    // Word under a point in this view's coordinates, or -1
+    public int wordAt(double x, double y) {
+        if (wrapWidth < 0 || lineCount == 0) return -1;
+        int line = (int) Math.floor((y - snappedTopInset()) / lineHeight());
+        if (line < 0 || line >= lineCount) return -1;
+        int a = lineStart[line], b = lineStart[line + 1];
+        double rx = (x - lineLeft(line)) / scale();
+        if (rx < 0) return -1;
+        // last word starting at or before rx
+        int lo = a, hi = b - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (refX[mid] <= rx) lo = mid; else hi = mid - 1;
+        }
+        return rx < refX[lo] + refWidths[lo] ? lo : -1;
+    }
+
+    private double lineLeft(int line) {
+        double width = layoutWidth() - snappedLeftInset() - snappedRightInset();
+        return snappedLeftInset() + Math.max(0, (width - lineRefWidth[line] * scale()) / 2);
+    }
+
+    private double fractionAt(double line, double viewportHeight) {
+        double lineH = lineHeight();
+        double contentH = lineCount * lineH + snappedTopInset() + snappedBottomInset();
+        if (contentH <= viewportHeight) return 0;
+        double y = snappedTopInset() + line * lineH;
+        double v = (y - viewportHeight/2)/(contentH - viewportHeight);
+        return Math.max(0, Math.min(1, v));
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        ensureWrapped(width < 0 ? getWidth() : width);
+        return lineCount * lineHeight() + snappedTopInset() + snappedBottomInset();
+    }
+
+    @Override
+    protected double computeMinWidth(double height) { return 0; }
+
+    @Override
+    protected void layoutChildren() {
+        ensureWrapped(getWidth());
+        refreshViewport();
+    }
+
+    private double scale() { return appliedSize / REF_SIZE; }
+
+    // Lines are centred in the width they were wrapped for until a deferred reflow catches up
+    private double layoutWidth() { return reflowDeferred && wrapWidth > 0 ? wrapWidth : getWidth(); }
+
+    private double lineHeight() { return refLineHeight * scale() + LINE_SPACING; }
+
+    private void ensureMetrics() {
+        if (refFont != null) return;
+        probe.applyCss();
+        refFont = Font.font(probe.getFont().getFamily(), REF_SIZE);
+        measure.setFont(refFont);
+        measureBold.setFont(Font.font(refFont.getFamily(), FontWeight.BOLD, REF_SIZE));
+        measure.setText("Mg");
+        refLineHeight = measure.getLayoutBounds().getHeight();
+        measureWords();
+    }
+
+    private void measureWords() {
+        for (int i = 0; i < words.length; i++) refWidths[i] = measureWidth(words[i]);
+    }
+
+    private double measureWidth(String w) {
+        Double cached = widthCache.get(w);
+        if (cached == null) {
+            measure.setText(w + " ");
+            measureBold.setText(w + " ");
+            cached = Math.max(measure.getLayoutBounds().getWidth(), measureBold.getLayoutBounds().getWidth());
+            widthCache.put(w, cached);
+        }
+        return cached;
+    }
+
+    /*
+     * Measures a script's words before it is shown (playlist preloads), so a
+     * later setTokens only reads the width cache. Text layout must happen on
+     * the FX thread, so this works through the words a batch per runLater,
+     * and stops as soon as wanted says the script is no longer coming.
+     */
+    public void premeasure(ScriptTokens next, BooleanSupplier wanted) {
+        premeasure(next.words(), 0, wanted);
+    }
+
+    private void premeasure(String[] ws, int from, BooleanSupplier wanted) {
+        if (refFont == null || !wanted.getAsBoolean()) return;
+        int end = Math.min(ws.length, from + PREMEASURE_BATCH);
+        for (int i = from; i < end; i++) measureWidth(ws[i]);
+        if (end < ws.length) Platform.runLater(() -> premeasure(ws, end, wanted));
+    }
+
+    // Drops cached widths except the current script's and keep's (the scripts a playlist still holds)
+    public void retainWidths(List<ScriptTokens> keep) {
+        Map<String, Double> kept = new HashMap<>();
+        retain(kept, words);
+        for (ScriptTokens t : keep) retain(kept, t.words());
+        widthCache.clear();
+        widthCache.putAll(kept);
+    }
+
+    private void retain(Map<String, Double> kept, String[] ws) {
+        for (String w : ws) {
+            Double width = widthCache.get(w);
+            if (width != null) kept.put(w, width);
+        }
+    }
+
+    // What premeasuring a script adds to the width cache, for preload budgets; any thread
+    public static long estimateWidthCacheBytes(ScriptTokens t) {
+        Set<String> distinct = new HashSet<>(Arrays.asList(t.words()));
+        return (long) WIDTH_ENTRY_BYTES * distinct.size();
+    }
+
+    private void ensureWrapped(double width) {
+        if (width <= 0) width = getPrefWidth() > 0 ? getPrefWidth() : 780;
+        if (width == wrapWidth && appliedSize == wrapSize) return;
+        if (getScene() == null) return;
+        boolean widthOnly = wrapWidth > 0 && appliedSize == wrapSize;
+        if (widthOnly && reflowDeferred) {
+            // the idle clock restarts only when the drag actually changes the width
+            if (width != deferredWidth) {
+                deferredWidth = width;
+                reflowIdle.playFromStart();
+            }
+            return;
+        }
+        ensureMetrics();
+        int anchor = widthOnly ? anchorWord() : -1;
+        double anchorY = anchor >= 0 ? anchorOffset(anchor) : 0;
+        wrapWidth = width;
+        wrapSize = appliedSize;
+        wrapFrom(0, availRefWidth(width));
+        if (anchor >= 0) keepAnchor(anchor, anchorY);
+    }
+
+    // Width available to a line, in reference-size units
+    private double availRefWidth(double width) {
+        Insets in = getInsets();
+        return Math.max(1, width - in.getLeft() - in.getRight()) / scale();
+    }
+
+    // Wraps the words from the start of line `first` on; the lines before it are kept as they are
+    private void wrapFrom(int first, double avail) {
+        int n = words.length;
+        int from = first == 0 ? 0 : lineStart[first];
+        int[] starts = Arrays.copyOf(lineStart, Math.max(2, n + 1));
+        int[] lineOf = Arrays.copyOf(lineOfWord, n);
+        double[] xs = Arrays.copyOf(refX, n);
+        double[] widths = Arrays.copyOf(lineRefWidth, Math.max(1, n));
+        int lines = first;
+        double x = 0;
+        for (int i = from; i < n; i++) {
+            if (i == from || (x + refWidths[i] > avail && x > 0)) {
+                if (lines > first) widths[lines - 1] = x;
+                starts[lines++] = i;
+                x = 0;
+            }
+            lineOf[i] = lines - 1;
+            xs[i] = x;
+            x += refWidths[i];
+        }
+        if (lines > first) widths[lines - 1] = x;
+        starts[lines] = n;
+        lineStart = starts;
+        lineOfWord = lineOf;
+        refX = xs;
+        lineRefWidth = widths;
+        lineCount = lines;
+        builtFirstLine = -1;
+    }
+
+    /*
+     * Scroll anchor across a re-wrap: the first word of the line at the
+     * viewport's centre, and how far below the viewport top its line sits.
+     * After wrapping, the vvalue is set so that word's line is back there.
+     */
+    private int anchorWord() {
+        if (scroll == null || lineCount == 0) return -1;
+        double vpH = scroll.getViewportBounds().getHeight();
+        int line = (int) ((viewportTop(vpH) + vpH / 2 - snappedTopInset()) / lineHeight());
+        return lineStart[Math.max(0, Math.min(lineCount - 1, line))];
+    }
+
+    private double anchorOffset(int word) {
+        double vpH = scroll.getViewportBounds().getHeight();
+        return snappedTopInset() + lineOfWord[word] * lineHeight() - viewportTop(vpH);
+    }
+
+    private void keepAnchor(int word, double offset) {
+        if (word >= lineOfWord.length) return;
+        double vpH = scroll.getViewportBounds().getHeight();
+        double contentH = lineCount * lineHeight() + snappedTopInset() + snappedBottomInset();
+        if (contentH <= vpH) return;
+        double y = snappedTopInset() + lineOfWord[word] * lineHeight() - offset;
+        scroll.setVvalue(Math.max(0, Math.min(1, y / (contentH - vpH))));
+    }
+
+    // Content y at the top of the viewport for the current vvalue
+    private double viewportTop(double vpH) {
+        double contentH = lineCount * lineHeight() + snappedTopInset() + snappedBottomInset();
+        double range = scroll.getVmax() - scroll.getVmin();
+        if (range <= 0 || contentH <= vpH) return 0;
+        return (scroll.getVvalue() - scroll.getVmin()) / range * (contentH - vpH);
+    }
+
+    private void refreshViewport() {
+        if (wrapWidth < 0 || lineCount == 0) {
+            hideFrom(0);
+            shownCount = 0;
+            builtFirstLine = -1;
+            return;
+        }
+        double lineH = lineHeight();
+        double top = snappedTopInset();
+        double offset = 0, vpH = getHeight();
+        if (scroll != null) {
+            vpH = scroll.getViewportBounds().getHeight();
+            double range = scroll.getVmax() - scroll.getVmin();
+            double extra = Math.max(0, getHeight() - vpH);
+            if (range > 0) offset = (scroll.getVvalue() - scroll.getVmin()) / range * extra;
+        }
+        int firstLine = Math.max(0, (int) ((offset - top) / lineH) - OVERSCAN_LINES);
+        int lastLine = Math.min(lineCount - 1, (int) ((offset + vpH - top) / lineH) + OVERSCAN_LINES);
+        if (lastLine < firstLine) lastLine = firstLine;
+        // nodes sit in content coordinates: scrolling within the same lines needs no node work
+        if (firstLine == builtFirstLine && lastLine == builtLastLine && layoutWidth() == builtWidth) return;
+        builtFirstLine = firstLine;
+        builtLastLine = lastLine;
+        builtWidth = layoutWidth();
+
+        firstShown = lineStart[firstLine];
+        shownCount = lineStart[lastLine + 1] - firstShown;
+        while (pool.size() < shownCount) pool.add(newWordNode());
+
+        double s = scale();
+        int k = 0;
+        for (int line = firstLine; line <= lastLine; line++) {
+            double left = lineLeft(line);
+            double y = top + line * lineH;
+            for (int i = lineStart[line]; i < lineStart[line + 1]; i++, k++) {
+                Text t = pool.get(k);
+                t.setText(words[i] + " ");
+                applyState(t, i);
+                t.relocate(left + refX[i] * s, y);
+                t.setVisible(true);
+            }
+        }
+        hideFrom(k);
+    }
+
+    private void hideFrom(int k) {
+        for (int i = k; i < pool.size(); i++) pool.get(i).setVisible(false);
+    }
+
+    private Text newWordNode() {
+        Text t = new Text();
+        t.setTextOrigin(VPos.TOP);
+        t.setManaged(false);
+        t.getStyleClass().add("teleprompter-word");
+        t.setCursor(Cursor.HAND);
+        getChildren().add(t);
+        return t;
+    }
+
+    private int refreshState(int idx) {
+        int k = idx - firstShown;
+        if (idx < 0 || k < 0 || k >= shownCount) return 0;
+        applyState(pool.get(k), idx);
+        return 1;
+    }
+
+    private void applyState(Text t, int idx) {
+        t.pseudoClassStateChanged(HIGHLIGHT, idx == current);
+        t.pseudoClassStateChanged(NEAR, idx == current-1 || idx == current+1);
+    }
+}
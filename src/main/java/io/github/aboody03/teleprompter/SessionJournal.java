@@ -0,0 +1,285 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Append-only binary record of a session for post-show analysis (see
+ * JournalReport): audio chunk metadata from the capture thread, partial and
+ * final hypotheses and emitted words from the decoder, follower decisions
+ * from the match thread, and highlight / scroll changes from the FX thread.
+ *
+ * The file is sized and memory-mapped up front, so a write is an atomic
+ * reservation plus a few absolute puts into the page cache: no locks, no
+ * syscalls, no flushing and no allocation on the hot threads. The mapping is
+ * sparse, so a "Journal-Prefault" thread writes each page once ahead of the
+ * records and takes the page fault and block allocation itself; writers only
+ * reserve below what it has touched. Each record's length is written last, so
+ * a crash leaves a readable prefix ending at the first zero length. When the
+ * file is full (or, in a burst, the prefaulter is behind) further records are
+ * counted and dropped.
+ *
+ *   record: u16 length, u8 type, u8 flags, i64 nanos since open, payload
+ */
+public final class SessionJournal {
+    static final int MAGIC = 0x504A4C31; // "PJL1"
+    static final int VERSION = 1;
+    // magic, version, wall-clock start millis, capacity, bytes used (set on close)
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_HEADER = 12;
+    static final int MAX_RECORD = 0xFFFF;
+
+    static final byte AUDIO = 1, PARTIAL = 2, FINAL = 3, WORD = 4, MATCH = 5,
+        HIGHLIGHT = 6, SCROLL = 7, SCRIPT = 8, ERROR = 9;
+    // AUDIO flags
+    static final int VOICED = 1, OVERRUN = 2;
+    // HIGHLIGHT sources
+    public static final int BY_SPEECH = 0, BY_CLICK = 1, BY_KEY = 2, BY_AUTO = 3, BY_LOAD = 4, BY_SYNC = 5;
+
+    private static final String DIR_PROPERTY = "promptme.journal";
+    private static final int PAGE = 4096;
+    // how far ahead of the writers pages are touched; a session writes a few KB per second
+    private static final int PREFAULT_AHEAD = 1 << 20;
+    private static final long PREFAULT_IDLE_NANOS = 50_000_000L;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buf;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong next = new AtomicLong(HEADER_BYTES);
+    private final AtomicLong dropped = new AtomicLong();
+    // bytes below this have been faulted in by a write; reservations never pass it
+    private volatile long touched;
+    private volatile boolean closed;
+
+    public SessionJournal(Path file, int capacityBytes) throws IOException {
+        this.file = file;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+        touched = touch(0, Math.min(capacityBytes, PREFAULT_AHEAD));
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, VERSION);
+        buf.putLong(8, System.currentTimeMillis());
+        buf.putLong(16, capacityBytes);
+        if (touched < capacityBytes) {
+            Thread t = new Thread(this::prefault, "Journal-Prefault");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            t.start();
+        }
+    }
+
+    /*
+     * -Dpromptme.journal=<dir> writes session-<time>.pjl there, preallocated to
+     * -Dpromptme.journal.maxMB (default 32, a couple of hours of speech).
+     * Null when unset or the file can't be created.
+     */
+    public static SessionJournal openDefault() {
+        String dir = System.getProperty(DIR_PROPERTY);
+        if (dir == null || dir.isBlank()) return null;
+        int maxMb = Math.max(1, Math.min(1024, Integer.getInteger(DIR_PROPERTY + ".maxMB", 32)));
+        Path file = Path.of(dir, "session-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".pjl");
+        try {
+            Files.createDirectories(file.getParent());
+            SessionJournal j = new SessionJournal(file, maxMb * 1024 * 1024);
+            DebugLog.println("Journal: recording to "+file.toAbsolutePath());
+            return j;
+        } catch (IOException e) {
+            System.err.println("Failed to open session journal in "+dir);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public Path getFile() { return file; }
+
+    public long getDropped() { return dropped.get(); }
+
+    public long getBytesUsed() { return Math.min(next.get(), buf.capacity()); }
+
+    // Capture thread, per chunk read from the line
+    public void audio(long capturedNanos, int bytes, boolean voiced, boolean overrun) {
+        int at = reserve(RECORD_HEADER + 4);
+        if (at < 0) return;
+        buf.putInt(at + RECORD_HEADER, bytes);
+        commit(at, RECORD_HEADER + 4, AUDIO, (voiced ? VOICED : 0) | (overrun ? OVERRUN : 0), capturedNanos);
+    }
+
+    // Decode thread, whenever the hypothesis changes
+    public void hypothesis(boolean isFinal, String text) {
+        text(isFinal ? FINAL : PARTIAL, 0, System.nanoTime(), text);
+    }
+
+    // Decode thread: a stabilized word, stamped when emitted, with its audio's capture time
+    public void word(HeardWord w) {
+        int utf = utf8Length(w.text(), 8);
+        int len = RECORD_HEADER + 8 + utf;
+        int at = reserve(len);
+        if (at < 0) return;
+        buf.putLong(at + RECORD_HEADER, relative(w.capturedNanos()));
+        putUtf8(at + RECORD_HEADER + 8, w.text(), utf);
+        commit(at, len, WORD, 0, w.emittedNanos());
+    }
+
+    // Match thread: the follower moved from..to for this word (to is -1 when it stayed put)
+    public void match(String heard, int from, int to) {
+        int utf = utf8Length(heard, 8);
+        int len = RECORD_HEADER + 8 + utf;
+        int at = reserve(len);
+        if (at < 0) return;
+        buf.putInt(at + RECORD_HEADER, from);
+        buf.putInt(at + RECORD_HEADER + 4, to);
+        putUtf8(at + RECORD_HEADER + 8, heard, utf);
+        commit(at, len, MATCH, 0, System.nanoTime());
+    }
+
+    // FX thread; capturedNanos is the audio behind a speech highlight, else 0
+    public void highlight(int index, int source, long capturedNanos) {
+        int at = reserve(RECORD_HEADER + 12);
+        if (at < 0) return;
+        buf.putInt(at + RECORD_HEADER, index);
+        buf.putLong(at + RECORD_HEADER + 4, capturedNanos == 0 ? -1 : relative(capturedNanos));
+        commit(at, RECORD_HEADER + 12, HIGHLIGHT, source, System.nanoTime());
+    }
+
+    // FX thread
+    public void scroll(double vvalue) {
+        int at = reserve(RECORD_HEADER + 8);
+        if (at < 0) return;
+        buf.putDouble(at + RECORD_HEADER, vvalue);
+        commit(at, RECORD_HEADER + 8, SCROLL, 0, System.nanoTime());
+    }
+
+    public void script(int words, String name) {
+        int utf = utf8Length(name, 4);
+        int len = RECORD_HEADER + 4 + utf;
+        int at = reserve(len);
+        if (at < 0) return;
+        buf.putInt(at + RECORD_HEADER, words);
+        putUtf8(at + RECORD_HEADER + 4, name, utf);
+        commit(at, len, SCRIPT, 0, System.nanoTime());
+    }
+
+    public void error(Throwable t) {
+        text(ERROR, 0, System.nanoTime(), Thread.currentThread().getName()+": "+t);
+    }
+
+    // Marks the used length in the header and flushes; later writes are ignored
+    public void close() {
+        if (closed) return;
+        closed = true;
+        buf.putLong(24, getBytesUsed());
+        buf.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        DebugLog.printf("Journal: %d KB written to %s, %d records dropped%n",
+            getBytesUsed() / 1024, file, dropped.get());
+    }
+
+    private void text(byte type, int flags, long nanos, String s) {
+        int utf = utf8Length(s, 0);
+        int len = RECORD_HEADER + utf;
+        int at = reserve(len);
+        if (at < 0) return;
+        putUtf8(at + RECORD_HEADER, s, utf);
+        commit(at, len, type, flags, nanos);
+    }
+
+    private int reserve(int len) {
+        if (closed) return -1;
+        while (true) {
+            long at = next.get();
+            if (at + len > touched) {
+                dropped.incrementAndGet();
+                return -1;
+            }
+            if (next.compareAndSet(at, at + len)) return (int) at;
+        }
+    }
+
+    // Keeps the touched watermark PREFAULT_AHEAD past the writers until the file is covered
+    private void prefault() {
+        while (!closed && touched < buf.capacity()) {
+            if (touched - next.get() > PREFAULT_AHEAD / 2) {
+                LockSupport.parkNanos(PREFAULT_IDLE_NANOS);
+                continue;
+            }
+            touched = touch(touched, Math.min(buf.capacity(), touched + PREFAULT_AHEAD));
+        }
+    }
+
+    // One write per page in [from, to): no writer can be there yet, the watermark is still below
+    private long touch(long from, long to) {
+        for (long p = from; p < to; p += PAGE) buf.put((int) p, (byte) 0);
+        return to;
+    }
+
+    // length goes in last: until then the reader sees the end of the journal here
+    private void commit(int at, int len, byte type, int flags, long nanos) {
+        buf.put(at + 2, type);
+        buf.put(at + 3, (byte) flags);
+        buf.putLong(at + 4, relative(nanos));
+        buf.putShort(at, (short) len);
+    }
+
+    private long relative(long nanos) { return nanos - startNanos; }
+
+    // UTF-8 length of s, cut at a character boundary to fit a record with `fixed` payload bytes before it
+    private static int utf8Length(String s, int fixed) {
+        int room = MAX_RECORD - RECORD_HEADER - fixed, n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            int b = utf8Bytes(s, i);
+            if (n + b > room) break;
+            n += b;
+            if (b == 4) i++;
+        }
+        return n;
+    }
+
+    // Encodes straight into the mapping; bytes is what utf8Length returned. Unpaired surrogates become '?'
+    private void putUtf8(int at, String s, int bytes) {
+        int end = at + bytes;
+        for (int i = 0; at < end; i++) {
+            char c = s.charAt(i);
+            switch (utf8Bytes(s, i)) {
+                case 1 -> buf.put(at++, (byte) (Character.isSurrogate(c) ? '?' : c));
+                case 2 -> {
+                    buf.put(at++, (byte) (0xC0 | c >> 6));
+                    buf.put(at++, (byte) (0x80 | c & 0x3F));
+                }
+                case 3 -> {
+                    buf.put(at++, (byte) (0xE0 | c >> 12));
+                    buf.put(at++, (byte) (0x80 | c >> 6 & 0x3F));
+                    buf.put(at++, (byte) (0x80 | c & 0x3F));
+                }
+                default -> {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    buf.put(at++, (byte) (0xF0 | cp >> 18));
+                    buf.put(at++, (byte) (0x80 | cp >> 12 & 0x3F));
+                    buf.put(at++, (byte) (0x80 | cp >> 6 & 0x3F));
+                    buf.put(at++, (byte) (0x80 | cp & 0x3F));
+                }
+            }
+        }
+    }
+
+    private static int utf8Bytes(String s, int i) {
+        char c = s.charAt(i);
+        if (c < 0x80) return 1;
+        if (c < 0x800) return 2;
+        if (!Character.isSurrogate(c)) return 3;
+        boolean paired = Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1));
+        return paired ? 4 : 1;
+    }
+}
@@ -3,64 +3,429 @@ package io.github.aboody03.teleprompter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
 import javax.sound.sampled.*;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.vosk.Model;
 import org.vosk.Recognizer;
 
+/*
+ * Three threads per session: capture fills a preallocated AudioRing straight
+ * from the mic, decode feeds Vosk and pushes stabilized words into an
+ * SpscQueue, and match hands them to the caller. A slow decoder or matcher
+ * therefore never delays micLine.read; if the ring fills, chunks are dropped
+ * and counted instead.
+ */
 public class SpeechRecognizer {
-    private Model model;
-    private Recognizer recognizer;
-    private volatile boolean recognizing = false;
-    private TargetDataLine micLine;
+    private static final int[] NATIVE_RATES = {48000, 44100, 32000, 22050, 96000};
+    public static final String MODEL_PROPERTY = "promptme.model";
+    // Decode against the loaded script's vocabulary instead of the model's full one
+    public static final String GRAMMAR_PROPERTY = "promptme.grammar";
+    private static final Map<Path, Model> MODELS = new HashMap<>();
+    private static final int WORD_QUEUE = 256;
+    private static final long IDLE_NANOS = 200_000;
+    private static final long STOP_TIMEOUT_MILLIS = 2000;
+
+    private final Model model;
+    private final Recognizer openRecognizer;
+    // the one decoding: open vocabulary, or the grammar for the current script
+    private volatile Recognizer recognizer;
+    private final AtomicReference<Recognizer> nextRecognizer = new AtomicReference<>();
+    private final boolean useGrammar = Boolean.getBoolean(GRAMMAR_PROPERTY);
+    private final ExecutorService grammarBuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Grammar-Builder");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong vocabularyVersion = new AtomicLong();
+    private volatile boolean closed;
+    private volatile Session session;
+    private final AudioSettings settings = AudioSettings.fromSystemProperties();
+    private final HypothesisTracker tracker = new HypothesisTracker();
+
+    private AudioRing ring = new AudioRing(2, 2);
+    private SpscQueue<HeardWord> words = new SpscQueue<>(2);
+    private volatile long droppedWords;
+    private volatile VoiceGate gate = new VoiceGate(0, 0);
+    private final StageStats audioWait = new StageStats("audio queue");
+    private final StageStats decode = new StageStats("decode");
+    private final StageStats wordWait = new StageStats("word queue");
+    private final StageStats match = new StageStats("match");
+    private final StageStats endToEnd = new StageStats("capture to highlight");
+    private final LatencyHistogram highlightLatency = new LatencyHistogram();
+    private volatile long decodeNanos, decodedBytes;
+    private volatile SessionJournal journal;
 
     public SpeechRecognizer() throws IOException {
-        Path modelRoot = Path.of("model","vosk-model-small-en-us-0.15");
-        if (!Files.isDirectory(modelRoot)) {
-            throw new IOException("Vosk model folder not found: "+modelRoot.toAbsolutePath());
+        this(defaultModelPath());
+    }
+
+    // Slow (the model is hundreds of MB for the larger ones): construct off the FX thread
+    public SpeechRecognizer(Path modelRoot) throws IOException {
+        long t0 = System.nanoTime();
+        model = sharedModel(modelRoot);
+        StartupReport.phase("speech model", t0);
+        long t1 = System.nanoTime();
+        openRecognizer = new Recognizer(model,16000.0f);
+        recognizer = openRecognizer;
+        StartupReport.phase("recognizer", t1);
+    }
+
+    // -Dpromptme.model or $PROMPTME_MODEL, else the small English model next to the app
+    public static Path defaultModelPath() {
+        String path = System.getProperty(MODEL_PROPERTY, System.getenv("PROMPTME_MODEL"));
+        return path != null && !path.isBlank() ? Path.of(path) : Path.of("model","vosk-model-small-en-us-0.15");
+    }
+
+    // One native Model per folder, shared by every recognizer built on it
+    static synchronized Model sharedModel(Path modelRoot) throws IOException {
+        Path key = modelRoot.toAbsolutePath().normalize();
+        Model m = MODELS.get(key);
+        if (m == null) {
+            if (!Files.isDirectory(key)) {
+                throw new IOException("Vosk model folder not found: "+key);
+            }
+            m = new Model(key.toString());
+            MODELS.put(key, m);
         }
-        model = new Model(modelRoot.toString());
-        recognizer = new Recognizer(model,16000.0f);
+        return m;
     }
 
-    public void start(Consumer<String> onText) {
-        recognizing = true;
-        Thread t = new Thread(() -> {
-            try {
-                AudioFormat fmt = new AudioFormat(16000,16,1,true,false);
-                DataLine.Info info = new DataLine.Info(TargetDataLine.class, fmt);
-                micLine = (TargetDataLine) AudioSystem.getLine(info);
-                micLine.open(fmt); micLine.start();
-
-                byte[] buf = new byte[1024];
-                while (recognizing) {
-                    int len = micLine.read(buf,0,buf.length);
-                    if (len<0) break;
-                    boolean isFinal = recognizer.acceptWaveForm(buf,len);
-                    JSONObject o = new JSONObject(isFinal ? recognizer.getResult() : recognizer.getPartialResult());
-                    String text = o.optString(isFinal ? "text" : "partial","");
-                    if (!text.isBlank()) {
-                        for (String w: text.split("\\s+")) onText.accept(w);
-                    }
+    // One mic session: its own stop flag and threads, so a quick off/on never shares state with the old one
+    private static final class Session {
+        volatile boolean running = true;
+        final List<Thread> threads = new ArrayList<>(3);
+
+        boolean alive() {
+            for (Thread t : threads) {
+                if (t.isAlive() && t != Thread.currentThread()) return true;
+            }
+            return false;
+        }
+    }
+
+    // False (and nothing started) if the previous session's threads haven't exited yet
+    public synchronized boolean start(Consumer<HeardWord> onWord) {
+        if (!stop()) {
+            System.err.println("Speech: previous session is still shutting down, not restarting");
+            return false;
+        }
+        // every thread of the previous session has exited, so the same recognizer starts clean
+        swapRecognizer();
+        recognizer.reset();
+        tracker.reset();
+        // slack for the resampler's rounding
+        AudioRing r = new AudioRing(settings.ringSlots(), settings.chunkBytes(AudioSettings.VOSK_RATE, 1) + 4);
+        SpscQueue<HeardWord> q = new SpscQueue<>(WORD_QUEUE);
+        ring = r;
+        words = q;
+        Session s = new Session();
+        session = s;
+        s.threads.add(startThread("Vosk-Capture", Thread.MAX_PRIORITY, () -> capture(s, r)));
+        s.threads.add(startThread("Vosk-Thread", Thread.NORM_PRIORITY + 2, () -> decode(s, r, q)));
+        s.threads.add(startThread("Vosk-Match", Thread.NORM_PRIORITY + 1, () -> match(s, q, onWord)));
+        return true;
+    }
+
+    private void capture(Session s, AudioRing r) {
+        TargetDataLine micLine = null;
+        try {
+            micLine = openLine();
+            AudioFormat fmt = micLine.getFormat();
+            int rate = (int) fmt.getSampleRate(), channels = fmt.getChannels();
+            int inBytes = settings.chunkBytes(rate, channels);
+            Resampler resampler = rate == AudioSettings.VOSK_RATE && channels == 1
+                ? null : new Resampler(rate, channels, AudioSettings.VOSK_RATE);
+            VoiceGate g = new VoiceGate(settings.vadThreshold(), settings.vadHangMs());
+            gate = g;
+            DebugLog.printf("Audio: %d Hz x%d%s, %s, line buffer %d bytes%n", rate, channels,
+                resampler == null ? "" : " resampled to 16000 Hz mono", settings, micLine.getBufferSize());
+            micLine.start();
+
+            byte[] raw = new byte[inBytes];
+            byte[] scratch = new byte[r.chunk(0).length];
+            while (s.running) {
+                byte[] buf;
+                int len;
+                if (resampler == null) {
+                    buf = r.claim();
+                    // ring full: keep draining the line so it can't overrun, but drop the audio
+                    len = micLine.read(buf != null ? buf : scratch, 0, inBytes);
+                } else {
+                    len = micLine.read(raw, 0, inBytes);
+                    buf = r.claim();
+                    if (len > 0) len = resampler.process(raw, len, buf != null ? buf : scratch);
                 }
+                if (len<0) break;
+                long now = System.nanoTime();
+                boolean voiced = buf != null && g.accept(buf, len, now);
+                if (voiced) r.publish(len, now);
+                SessionJournal j = journal;
+                if (j != null) j.audio(now, len, voiced, buf == null);
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            journalError(ex);
+        } finally {
+            if (micLine != null) {
+                micLine.stop();
                 micLine.close();
-            } catch (Exception ex) {
+            }
+        }
+    }
+
+    // 16 kHz mono if the device offers it, otherwise the first native format we can convert from
+    private TargetDataLine openLine() throws LineUnavailableException {
+        int[] rates = settings.captureRate() > 0 ? new int[] {settings.captureRate()} : NATIVE_RATES;
+        List<Integer> candidates = new ArrayList<>();
+        if (settings.captureRate() <= 0) candidates.add(AudioSettings.VOSK_RATE);
+        for (int rate : rates) candidates.add(rate);
+        for (int rate : candidates) {
+            for (int channels = 1; channels <= 2; channels++) {
+                AudioFormat fmt = new AudioFormat(rate,16,channels,true,false);
+                DataLine.Info info = new DataLine.Info(TargetDataLine.class, fmt);
+                if (!AudioSystem.isLineSupported(info)) continue;
+                TargetDataLine line = (TargetDataLine) AudioSystem.getLine(info);
+                int bufferBytes = (int) ((long) settings.lineBufferMs() * rate / 1000) * 2 * channels;
+                if (bufferBytes > 0) line.open(fmt, Math.max(bufferBytes, settings.chunkBytes(rate, channels)));
+                else line.open(fmt);
+                return line;
+            }
+        }
+        throw new LineUnavailableException("No 16-bit PCM capture format at "+candidates+" Hz");
+    }
+
+    private void decode(Session s, AudioRing r, SpscQueue<HeardWord> q) {
+        long[] chunkTime = {0};
+        Consumer<String> emit = w -> {
+            HeardWord heard = new HeardWord(w, chunkTime[0], System.nanoTime());
+            if (!q.offer(heard)) droppedWords++;
+            SessionJournal j = journal;
+            if (j != null) j.word(heard);
+        };
+        String lastPartial = "";
+        try {
+            while (s.running) {
+                // a new grammar is only adopted between utterances, never under words being spoken
+                if (lastPartial.isEmpty()) swapRecognizer();
+                Recognizer rec = recognizer;
+                int slot = r.peek();
+                if (slot < 0) {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                    continue;
+                }
+                long t0 = System.nanoTime();
+                chunkTime[0] = r.capturedAt(slot);
+                audioWait.record(t0 - chunkTime[0]);
+                SessionJournal j = journal;
+                if (rec.acceptWaveForm(r.chunk(slot), r.length(slot))) {
+                    JSONObject o = new JSONObject(rec.getResult());
+                    String text = o.optString("text","");
+                    if (j != null) j.hypothesis(true, text);
+                    lastPartial = "";
+                    tracker.acceptFinal(text, emit);
+                } else {
+                    JSONObject o = new JSONObject(rec.getPartialResult());
+                    String partial = o.optString("partial","");
+                    // most chunks leave the partial as it was; only changes are worth a record
+                    if (j != null && !partial.equals(lastPartial)) j.hypothesis(false, partial);
+                    lastPartial = partial;
+                    tracker.acceptPartial(partial, emit);
+                }
+                decodedBytes += r.length(slot);
+                r.release();
+                long spent = System.nanoTime() - t0;
+                decode.record(spent);
+                decodeNanos += spent;
+            }
+            if (DebugLog.ENABLED) {
+                DebugLog.printf("Speech: emitted %d of %d hypothesis words, %d audio overruns, %d silent chunks skipped, %d dropped words%n",
+                    tracker.getEmittedWords(), tracker.getRawWords(), r.getOverruns(), gate.getGatedChunks(), droppedWords);
+                DebugLog.printf("Speech: %s vocabulary, real-time factor %.3f%n",
+                    recognizer == openRecognizer ? "open" : "script", getRealTimeFactor());
+                DebugLog.println("Speech: "+String.join(", ", getStageStats().stream().map(StageStats::toString).toList()));
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            journalError(ex);
+        }
+    }
+
+    /*
+     * With -Dpromptme.grammar, builds a recognizer restricted to the script's
+     * vocabulary on a background thread; the decode thread switches to it
+     * after the next final result (or at once while nothing is being said).
+     * Newer scripts supersede builds still queued or running.
+     */
+    public void setVocabulary(ScriptTokens tokens) {
+        if (!useGrammar) return;
+        long version = vocabularyVersion.incrementAndGet();
+        grammarBuilder.submit(() -> {
+            if (version != vocabularyVersion.get()) return;
+            try {
+                long t0 = System.nanoTime();
+                String grammar = VocabularyGrammar.build(tokens);
+                Recognizer built = new Recognizer(model, AudioSettings.VOSK_RATE, grammar);
+                if (closed || version != vocabularyVersion.get()) {
+                    built.close();
+                    return;
+                }
+                Recognizer stale = nextRecognizer.getAndSet(built);
+                if (stale != null) stale.close();
+                // close() raced us after the check above: whichever of us gets it closes it
+                if (closed) {
+                    Recognizer orphan = nextRecognizer.getAndSet(null);
+                    if (orphan != null) orphan.close();
+                    return;
+                }
+                DebugLog.printf("Grammar: %d script words -> %d grammar entries in %.1f ms%n",
+                    tokens.size(), new JSONArray(grammar).length(), (System.nanoTime() - t0) / 1e6);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to build script grammar, keeping the current recognizer");
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public boolean isGrammarMode() { return useGrammar; }
+
+    // Decode thread (or start() while stopped): adopt a freshly built grammar recognizer
+    private void swapRecognizer() {
+        if (nextRecognizer.get() == null) return;
+        Recognizer next = nextRecognizer.getAndSet(null);
+        if (next == null) return;
+        Recognizer old = recognizer;
+        recognizer = next;
+        tracker.reset();
+        if (old != openRecognizer) old.close();
+    }
+
+    private void match(Session s, SpscQueue<HeardWord> q, Consumer<HeardWord> onWord) {
+        while (s.running) {
+            HeardWord w = q.poll();
+            if (w == null) {
+                LockSupport.parkNanos(IDLE_NANOS);
+                continue;
+            }
+            long t0 = System.nanoTime();
+            wordWait.record(t0 - w.emittedNanos());
+            try {
+                onWord.accept(w);
+            } catch (RuntimeException ex) {
                 ex.printStackTrace();
+                journalError(ex);
             }
-        }, "Vosk-Thread");
+            match.record(System.nanoTime() - t0);
+        }
+    }
+
+    // Records audio, hypotheses, words and failures of every session from now on; null turns it off
+    public void setJournal(SessionJournal j) { journal = j; }
+
+    private void journalError(Throwable ex) {
+        SessionJournal j = journal;
+        if (j != null) j.error(ex);
+    }
+
+    private static Thread startThread(String name, int priority, Runnable body) {
+        Thread t = new Thread(body, name);
         t.setDaemon(true);
-        t.setPriority(Thread.MAX_PRIORITY);
+        t.setPriority(priority);
         t.start();
+        return t;
     }
 
-    public void stop() {
-        recognizing = false;
-        if (micLine != null) {
-            micLine.stop();
-            micLine.close();
+    public long getRawWordCount() { return tracker.getRawWords(); }
+
+    public long getEmittedWordCount() { return tracker.getEmittedWords(); }
+
+    public int getAudioQueueDepth() { return ring.size(); }
+
+    public int getWordQueueDepth() { return words.size(); }
+
+    public long getOverruns() { return ring.getOverruns(); }
+
+    public long getDroppedWords() { return droppedWords; }
+
+    public long getGatedChunks() { return gate.getGatedChunks(); }
+
+    public AudioSettings getSettings() { return settings; }
+
+    // FX thread, once a word's match is on screen: capture of its last audio chunk to highlight
+    public void recordHighlight(long capturedNanos) {
+        if (capturedNanos == 0) return;
+        long nanos = System.nanoTime() - capturedNanos;
+        endToEnd.record(nanos);
+        highlightLatency.record(nanos);
+    }
+
+    public StageStats getEndToEndStats() { return endToEnd; }
+
+    public LatencyHistogram getHighlightLatency() { return highlightLatency; }
+
+    // Decode time per second of audio decoded; below 1 means Vosk keeps up
+    public double getRealTimeFactor() {
+        long bytes = decodedBytes;
+        return bytes == 0 ? 0 : decodeNanos / 1e9 / (bytes / (2.0 * AudioSettings.VOSK_RATE));
+    }
+
+    public List<StageStats> getStageStats() { return List.of(audioWait, decode, wordWait, match, endToEnd); }
+
+    /*
+     * Signals the session and waits for all three of its threads (the capture
+     * thread closes its own line). The recognizer may only be reset, swapped
+     * or closed once this returns true; false means a thread is still inside
+     * it after the timeout. Blocks for up to that long, so callers on the FX
+     * thread should run it elsewhere.
+     */
+    public synchronized boolean stop() {
+        Session s = session;
+        if (s == null) return true;
+        s.running = false;
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+        try {
+            for (Thread t : s.threads) {
+                long left = deadline - System.currentTimeMillis();
+                if (t != Thread.currentThread() && left > 0) t.join(left);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (s.alive()) return false;
+        session = null;
+        return true;
+    }
+
+    // Releases the recognizer; the shared model stays loaded for the process
+    public void close() {
+        closed = true;
+        grammarBuilder.shutdownNow();
+        if (!stop()) {
+            // better to leak the native recognizer than free it under a running decoder
+            System.err.println("Speech: session threads did not exit, leaving the recognizer open");
+            return;
+        }
+        try {
+            // a grammar build can't be interrupted inside native code; let it finish and see closed
+            grammarBuilder.awaitTermination(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        swapRecognizer();
+        if (recognizer != openRecognizer) recognizer.close();
+        openRecognizer.close();
     }
 }
@@ -0,0 +1,47 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Bounded lock-free queue for exactly one producer thread and one consumer
+ * thread. Head and tail only ever move forward and are published with ordered
+ * writes, so neither side takes a lock or allocates.
+ */
+public class SpscQueue<T> {
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(), tail = new AtomicLong();
+
+    public SpscQueue(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new Object[cap];
+        mask = cap - 1;
+    }
+
+    // Producer side; false when full so the caller decides whether to drop or retry
+    public boolean offer(T item) {
+        long t = tail.get();
+        if (t - head.get() >= slots.length) return false;
+        slots[(int) t & mask] = item;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // Consumer side; null when empty
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long h = head.get();
+        if (h >= tail.get()) return null;
+        int i = (int) h & mask;
+        T item = (T) slots[i];
+        slots[i] = null;
+        head.lazySet(h + 1);
+        return item;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() { return slots.length; }
+}
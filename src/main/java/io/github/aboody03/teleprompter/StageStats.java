@@ -0,0 +1,36 @@
+package io.github.aboody03.teleprompter;
+
+// Running latency figures for one pipeline stage; written by a single thread, read by anyone
+public class StageStats {
+    private final String name;
+    private volatile long count, totalNanos, maxNanos, lastNanos;
+
+    public StageStats(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos) {
+        count++;
+        totalNanos += nanos;
+        lastNanos = nanos;
+        if (nanos > maxNanos) maxNanos = nanos;
+    }
+
+    public String getName() { return name; }
+
+    public long getCount() { return count; }
+
+    public double getMeanMillis() {
+        long n = count;
+        return n == 0 ? 0 : totalNanos / 1e6 / n;
+    }
+
+    public double getMaxMillis() { return maxNanos / 1e6; }
+
+    public double getLastMillis() { return lastNanos / 1e6; }
+
+    @Override
+    public String toString() {
+        return String.format("%s n=%d mean=%.2fms max=%.2fms", name, count, getMeanMillis(), getMaxMillis());
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.aboody03.teleprompter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Startup time by phase. Phases run on different threads (the model loads
+ * while the window is built), so each records its own duration and when it
+ * finished relative to main(). The report prints once every awaited
+ * milestone has been reached.
+ */
+public final class StartupReport {
+    private static final long T0 = System.nanoTime();
+    private static final List<String> phases = new ArrayList<>();
+    private static final Set<String> awaited = new HashSet<>();
+    private static boolean printed;
+
+    private StartupReport() {}
+
+    // Called first thing in main(); names the milestones that complete startup
+    public static synchronized void begin(String... milestones) {
+        awaited.addAll(List.of(milestones));
+    }
+
+    public static long startNanos() { return T0; }
+
+    public static synchronized void phase(String name, long startNanos) {
+        long end = System.nanoTime();
+        phases.add(String.format("  %-22s %8.1f ms  (done at +%.0f ms, %s)",
+            name, (end - startNanos) / 1e6, (end - T0) / 1e6, Thread.currentThread().getName()));
+    }
+
+    public static synchronized void milestone(String name) {
+        phase(name, System.nanoTime());
+        awaited.remove(name);
+        if (awaited.isEmpty() && !printed) {
+            printed = true;
+            StringBuilder sb = new StringBuilder("Startup report:\n");
+            ProcessHandle.current().info().startInstant().ifPresent(jvm -> sb.append(String.format(
+                "  %-22s %8d ms%n", "JVM start to now", Duration.between(jvm, Instant.now()).toMillis())));
+            for (String p : phases) sb.append(p).append('\n');
+            DebugLog.println(sb.toString().stripTrailing());
+        }
+    }
+}
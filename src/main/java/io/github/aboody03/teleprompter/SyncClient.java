@@ -0,0 +1,132 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/*
+ * Mirror side of display sync: connects to a SyncPublisher, keeps the
+ * decoded index / scroll / script and hands changes to a listener from the
+ * "Sync-Follow" thread. Reconnects every second while the publisher is away
+ * and announces the script it already holds so it isn't sent again.
+ */
+public class SyncClient {
+    private static final long RETRY_MILLIS = 1000;
+
+    public interface Listener {
+        void onScript(ScriptTokens tokens);
+
+        // wordPosition: the word at the centre of the publisher's viewport, fractional
+        void onState(int index, double wordPosition);
+    }
+
+    private final String host;
+    private final int port;
+    private final Listener listener;
+    private volatile boolean running = true;
+    private volatile Socket socket;
+    private byte[] hash = SyncProtocol.scriptHash(ScriptTokens.EMPTY);
+    private int index;
+    private long scrollUnits;
+    private volatile long updates;
+
+    public SyncClient(String host, int port, Listener listener) {
+        this.host = host;
+        this.port = port;
+        this.listener = listener;
+        Thread t = new Thread(this::run, "Sync-Follow");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    // "host:port" or just "port" (loopback)
+    public static SyncClient connect(String target, Listener listener) {
+        int colon = target.lastIndexOf(':');
+        String host = colon < 0 ? "localhost" : target.substring(0, colon);
+        int port = Integer.parseInt(target.substring(colon + 1));
+        return new SyncClient(host, port, listener);
+    }
+
+    public long getUpdates() { return updates; }
+
+    public void close() {
+        running = false;
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void run() {
+        boolean announced = false;
+        while (running) {
+            try (Socket s = new Socket()) {
+                s.setTcpNoDelay(true);
+                s.connect(new InetSocketAddress(host, port), 2000);
+                socket = s;
+                DebugLog.println("Sync: following "+host+":"+port);
+                announced = false;
+                session(s);
+            } catch (IOException e) {
+                if (!running) return;
+                if (!announced) DebugLog.println("Sync: waiting for "+host+":"+port+" ("+e.getMessage()+")");
+                announced = true;
+            }
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void session(Socket s) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+        out.writeByte(SyncProtocol.HELLO);
+        out.writeByte(SyncProtocol.VERSION);
+        out.write(hash);
+        out.flush();
+        // the publisher starts every connection's deltas from 0
+        index = 0;
+        scrollUnits = 0;
+        while (running) {
+            int type = in.readUnsignedByte();
+            switch (type) {
+                case SyncProtocol.SCRIPT -> {
+                    byte[] h = new byte[SyncProtocol.HASH_BYTES];
+                    in.readFully(h);
+                    ScriptTokens tokens = ScriptTokens.of(SyncProtocol.readScriptWords(in));
+                    hash = h;
+                    listener.onScript(tokens);
+                }
+                case SyncProtocol.STATE -> {
+                    int flags = in.readUnsignedByte();
+                    if ((flags & SyncProtocol.HAS_INDEX) != 0) {
+                        index += (int) SyncProtocol.unzigzag(SyncProtocol.readVarint(in));
+                    }
+                    if ((flags & SyncProtocol.HAS_SCROLL) != 0) {
+                        scrollUnits += SyncProtocol.unzigzag(SyncProtocol.readVarint(in));
+                    }
+                    updates++;
+                    listener.onState(index, SyncProtocol.scrollPosition(scrollUnits));
+                }
+                case SyncProtocol.PING -> {
+                    long sent = in.readLong();
+                    out.writeByte(SyncProtocol.PONG);
+                    out.writeLong(sent);
+                    out.flush();
+                }
+                default -> throw new IOException("Unexpected sync frame "+type);
+            }
+        }
+    }
+}
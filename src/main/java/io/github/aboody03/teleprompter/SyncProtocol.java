@@ -0,0 +1,109 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/*
+ * Wire format between a publishing PromptMe and its mirrors. Every frame is a
+ * type byte and a payload:
+ *
+ *   HELLO   client -> publisher   version u8, hash of the script it already has (32 bytes)
+ *   SCRIPT  publisher -> client   hash (32), word count (varint), words (varint length + UTF-8)
+ *   STATE   publisher -> client   flags u8, [zigzag varint index delta], [zigzag varint scroll delta]
+ *   PING    publisher -> client   publisher nanoTime (8)
+ *   PONG    client -> publisher   the PING payload echoed
+ *
+ * STATE carries only what changed since the last STATE on that connection:
+ * moving on by a word with the scroll following is 4 bytes. The scroll
+ * position is the word at the centre of the viewport, in 1/16 words, so a
+ * mirror with another window size or font scrolls to the same text.
+ */
+final class SyncProtocol {
+    static final int VERSION = 2;
+    static final int HELLO = 1, SCRIPT = 2, STATE = 3, PING = 4, PONG = 5;
+    static final int HAS_INDEX = 1, HAS_SCROLL = 2;
+    static final int HASH_BYTES = 32;
+    static final int SCROLL_STEPS = 16;
+    // Limits on what a SCRIPT frame may claim, so a bad peer gets an IOException instead of an OOM
+    static final int MAX_WORDS = 1 << 24, MAX_WORD_BYTES = 1 << 16;
+
+    private SyncProtocol() {}
+
+    static byte[] scriptHash(ScriptTokens tokens) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (int i = 0; i < tokens.size(); i++) {
+                sha.update(tokens.word(i).getBytes(StandardCharsets.UTF_8));
+                sha.update((byte) '\n');
+            }
+            return sha.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static long scrollUnits(double wordPosition) {
+        return Math.round(Math.max(0, wordPosition) * SCROLL_STEPS);
+    }
+
+    static double scrollPosition(long units) {
+        return units / (double) SCROLL_STEPS;
+    }
+
+    static void writeVarint(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    static long readVarint(DataInputStream in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static long zigzag(long v) { return (v << 1) ^ (v >> 63); }
+
+    static long unzigzag(long v) { return (v >>> 1) ^ -(v & 1); }
+
+    static void writeScript(DataOutputStream out, byte[] hash, ScriptTokens tokens) throws IOException {
+        out.writeByte(SCRIPT);
+        out.write(hash);
+        writeVarint(out, tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            byte[] utf = tokens.word(i).getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, utf.length);
+            out.write(utf);
+        }
+    }
+
+    static String[] readScriptWords(DataInputStream in) throws IOException {
+        long count = readVarint(in);
+        if (count < 0 || count > MAX_WORDS) throw new IOException("Bad script word count "+count);
+        int n = (int) count;
+        // grown as words actually arrive, not sized from the count up front
+        String[] words = new String[Math.min(n, 4096)];
+        byte[] buf = new byte[64];
+        for (int i = 0; i < n; i++) {
+            long wordBytes = readVarint(in);
+            if (wordBytes < 0 || wordBytes > MAX_WORD_BYTES) throw new IOException("Bad script word length "+wordBytes);
+            int len = (int) wordBytes;
+            if (i == words.length) words = Arrays.copyOf(words, (int) Math.min(n, 2L * words.length));
+            if (len > buf.length) buf = new byte[Math.max(len, buf.length * 2)];
+            in.readFully(buf, 0, len);
+            words[i] = new String(buf, 0, len, StandardCharsets.UTF_8);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,233 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Operator side of display sync. The UI thread only stores the latest index,
+ * scroll and script and wakes the sender; the "Sync-Sender" thread writes one
+ * coalesced delta frame per client, so a burst of highlights costs one frame
+ * and a slow client never blocks the UI. Each client has its own reader that
+ * handles HELLO and PONG; round trips are measured with a PING every second.
+ */
+public class SyncPublisher {
+    private static final long PING_NANOS = 1_000_000_000L;
+
+    private final ServerSocket server;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final Thread sender;
+    private volatile boolean running = true;
+
+    private volatile int index;
+    private volatile double scroll;
+    private volatile ScriptTokens tokens = ScriptTokens.EMPTY;
+    private volatile byte[] hash = SyncProtocol.scriptHash(ScriptTokens.EMPTY);
+    private volatile boolean dirty;
+
+    private final LatencyHistogram roundTrips = new LatencyHistogram();
+    private volatile long stateFrames, stateBytes;
+
+    private static final class Client {
+        final Socket socket;
+        final DataOutputStream out;
+        volatile boolean ready;
+        volatile byte[] knownHash;
+        byte[] sentHash;
+        int sentIndex;
+        long sentScroll = Long.MIN_VALUE;
+
+        Client(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 8192));
+        }
+    }
+
+    // Port 0 picks a free one (see getPort); bindAddress null means loopback only
+    public SyncPublisher(int port, InetAddress bindAddress) throws IOException {
+        server = new ServerSocket();
+        server.bind(new InetSocketAddress(bindAddress != null ? bindAddress : InetAddress.getLoopbackAddress(), port));
+        Thread acceptor = new Thread(this::acceptLoop, "Sync-Accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        sender = new Thread(this::sendLoop, "Sync-Sender");
+        sender.setDaemon(true);
+        sender.start();
+        DebugLog.println("Sync: publishing on "+server.getLocalSocketAddress());
+    }
+
+    public int getPort() { return server.getLocalPort(); }
+
+    public int getClientCount() { return clients.size(); }
+
+    // Reader threads record round trips concurrently; the histogram itself is single-writer
+    public long getRoundTripCount() {
+        synchronized (roundTrips) {
+            return roundTrips.count();
+        }
+    }
+
+    public double getRoundTripMillis(double fraction) {
+        synchronized (roundTrips) {
+            return roundTrips.percentileMillis(fraction);
+        }
+    }
+
+    public double getBytesPerUpdate() {
+        long frames = stateFrames;
+        return frames == 0 ? 0 : (double) stateBytes / frames;
+    }
+
+    // Any thread; only the newest values are sent. wordPosition is the word at the viewport's centre
+    public void publish(int newIndex, double wordPosition) {
+        index = newIndex;
+        scroll = wordPosition;
+        wake();
+    }
+
+    public void publishScript(ScriptTokens newTokens) {
+        byte[] newHash = SyncProtocol.scriptHash(newTokens);
+        tokens = newTokens;
+        hash = newHash;
+        wake();
+    }
+
+    public void close() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        for (Client c : clients) drop(c);
+        LockSupport.unpark(sender);
+    }
+
+    private void wake() {
+        dirty = true;
+        LockSupport.unpark(sender);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket s = server.accept();
+                s.setTcpNoDelay(true);
+                Client c = new Client(s);
+                clients.add(c);
+                Thread reader = new Thread(() -> readLoop(c), "Sync-Client-"+s.getPort());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (running) e.printStackTrace();
+            }
+        }
+    }
+
+    private void readLoop(Client c) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(c.socket.getInputStream()))) {
+            while (running) {
+                int type = in.readUnsignedByte();
+                if (type == SyncProtocol.HELLO) {
+                    int version = in.readUnsignedByte();
+                    if (version != SyncProtocol.VERSION) throw new IOException("Sync version "+version+" not supported");
+                    byte[] known = new byte[SyncProtocol.HASH_BYTES];
+                    in.readFully(known);
+                    c.knownHash = known;
+                    c.ready = true;
+                    DebugLog.println("Sync: client "+c.socket.getRemoteSocketAddress()+" connected");
+                    wake();
+                } else if (type == SyncProtocol.PONG) {
+                    long rtt = System.nanoTime() - in.readLong();
+                    synchronized (roundTrips) {
+                        roundTrips.record(rtt);
+                    }
+                } else {
+                    throw new IOException("Unexpected sync frame "+type);
+                }
+            }
+        } catch (IOException e) {
+            if (running) DebugLog.println("Sync: client "+c.socket.getRemoteSocketAddress()+" left"
+                + (e instanceof EOFException ? "" : " ("+e.getMessage()+")"));
+        }
+        drop(c);
+    }
+
+    private void sendLoop() {
+        long nextPing = System.nanoTime() + PING_NANOS;
+        while (running) {
+            long now = System.nanoTime();
+            if (!dirty && now < nextPing) {
+                LockSupport.parkNanos(nextPing - now);
+                continue;
+            }
+            dirty = false;
+            boolean ping = now >= nextPing;
+            if (ping) nextPing = now + PING_NANOS;
+            for (Client c : clients) {
+                if (!c.ready) continue;
+                try {
+                    send(c, ping);
+                } catch (IOException e) {
+                    drop(c);
+                }
+            }
+        }
+    }
+
+    // Sender thread only: brings one client up to date with a single flush
+    private void send(Client c, boolean ping) throws IOException {
+        byte[] h = hash;
+        ScriptTokens t = tokens;
+        if (c.sentHash == null || !Arrays.equals(c.sentHash, h)) {
+            if (!Arrays.equals(c.knownHash, h)) SyncProtocol.writeScript(c.out, h, t);
+            c.sentHash = h;
+            c.knownHash = h;
+        }
+        int idx = index;
+        long sc = SyncProtocol.scrollUnits(scroll);
+        int flags = (idx != c.sentIndex ? SyncProtocol.HAS_INDEX : 0) | (sc != c.sentScroll ? SyncProtocol.HAS_SCROLL : 0);
+        if (flags != 0) {
+            int before = c.out.size();
+            c.out.writeByte(SyncProtocol.STATE);
+            c.out.writeByte(flags);
+            if ((flags & SyncProtocol.HAS_INDEX) != 0) {
+                SyncProtocol.writeVarint(c.out, SyncProtocol.zigzag(idx - c.sentIndex));
+            }
+            if ((flags & SyncProtocol.HAS_SCROLL) != 0) {
+                // every connection's scroll starts from 0 on both ends
+                long base = c.sentScroll == Long.MIN_VALUE ? 0 : c.sentScroll;
+                SyncProtocol.writeVarint(c.out, SyncProtocol.zigzag(sc - base));
+            }
+            c.sentIndex = idx;
+            c.sentScroll = sc;
+            stateBytes += c.out.size() - before;
+            stateFrames++;
+        }
+        if (ping) {
+            c.out.writeByte(SyncProtocol.PING);
+            c.out.writeLong(System.nanoTime());
+        }
+        c.out.flush();
+    }
+
+    private void drop(Client c) {
+        clients.remove(c);
+        try {
+            c.socket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.aboody03.teleprompter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Loopback check of display sync with no window: a publisher and a client in
+ * one process, the bundled script sent once, then a stream of position
+ * updates at reading-to-fast-scrolling rates. Both ends share a clock, so
+ * publish-to-receive latency is exact. Prints latency, coalescing, bytes per
+ * update and the ping round trip.
+ *
+ *   App --sync-selftest [updates] [intervalMicros]
+ */
+public final class SyncSelfTest {
+    private SyncSelfTest() {}
+
+    public static int run(String[] args) {
+        int updates = 3000;
+        long intervalNanos = 1_000_000;
+        int positional = 0;
+        for (String a : args) {
+            if (a.startsWith("--")) continue;
+            if (positional++ == 0) updates = Integer.parseInt(a);
+            else intervalNanos = Long.parseLong(a) * 1000;
+        }
+        try (InputStream in = SyncSelfTest.class.getResourceAsStream("/script.txt")) {
+            ScriptTokens tokens = ScriptTokens.tokenize(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            return run(tokens, updates, intervalNanos);
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    private static int run(ScriptTokens tokens, int updates, long intervalNanos) throws IOException, InterruptedException {
+        long[] publishedAt = new long[updates + 1];
+        LatencyHistogram latency = new LatencyHistogram();
+        CountDownLatch scriptArrived = new CountDownLatch(1), done = new CountDownLatch(1);
+        int[] received = {-1};
+        int words = tokens.size();
+
+        SyncPublisher publisher = new SyncPublisher(0, null);
+        publisher.publishScript(tokens);
+        SyncClient client = new SyncClient("localhost", publisher.getPort(), new SyncClient.Listener() {
+            @Override
+            public void onScript(ScriptTokens t) {
+                if (t.size() == words) scriptArrived.countDown();
+            }
+
+            @Override
+            public void onState(int index, double wordPosition) {
+                // the index is the step number itself; the protocol doesn't care that it runs past the script
+                int step = index;
+                if (step >= 0 && step <= updates && publishedAt[step] != 0) latency.record(System.nanoTime() - publishedAt[step]);
+                received[0] = step;
+                if (step == updates) done.countDown();
+            }
+        });
+        if (!scriptArrived.await(5, TimeUnit.SECONDS)) {
+            System.err.println("Sync self-test: script never arrived");
+            return 1;
+        }
+
+        long t0 = System.nanoTime();
+        for (int step = 1; step <= updates; step++) {
+            publishedAt[step] = System.nanoTime();
+            publisher.publish(step, step);
+            LockSupport.parkNanos(intervalNanos);
+        }
+        boolean ok = done.await(5, TimeUnit.SECONDS);
+        double secs = (System.nanoTime() - t0) / 1e9;
+        // let a ping complete if the run was shorter than the ping interval
+        for (int i = 0; i < 30 && publisher.getRoundTripCount() == 0; i++) Thread.sleep(100);
+
+        System.out.printf(Locale.ROOT,
+            "Sync self-test: %d updates in %.2f s, %d frames received (%.0f%% coalesced), %.2f bytes/update%n"
+            + "  publish->render p50 %.3f ms, p99 %.3f ms, max %.3f ms; ping round trip p50 %.3f ms%n",
+            updates, secs, client.getUpdates(), Math.max(0, 100.0 * (1 - (double) client.getUpdates() / updates)),
+            publisher.getBytesPerUpdate(), latency.percentileMillis(0.5), latency.percentileMillis(0.99),
+            latency.maxMillis(), publisher.getRoundTripMillis(0.5));
+        client.close();
+        publisher.close();
+        if (!ok) System.err.println("Sync self-test: client stopped at step "+received[0]+" of "+updates);
+        return ok ? 0 : 1;
+    }
+}
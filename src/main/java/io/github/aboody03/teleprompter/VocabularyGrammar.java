@@ -0,0 +1,50 @@
+package io.github.aboody03.teleprompter;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.json.JSONArray;
+
+/*
+ * Vosk grammar for one script: every distinct word it uses, the homophones
+ * of those words (so "their" can still come back as "there" and match), and
+ * "[unk]" to absorb ad-libs instead of forcing them onto script words.
+ * Numerals and symbols are left to [unk]; the model spells numbers out.
+ */
+public final class VocabularyGrammar {
+    private VocabularyGrammar() {}
+
+    public static String build(ScriptTokens tokens) {
+        HomophoneDictionary dict = HomophoneUtils.dictionary();
+        Set<String> vocab = new LinkedHashSet<>();
+        Set<Integer> groups = new HashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            String w = spoken(tokens.norm(i));
+            if (w == null || !vocab.add(w)) continue;
+            // tokens may predate a custom dictionary that merged their group
+            if (tokens.group(i) >= 0) groups.add(dict.rootOf(tokens.group(i)));
+        }
+        for (int i = 0; i < dict.size(); i++) {
+            if (groups.contains(dict.groupAt(i))) vocab.add(dict.word(i));
+        }
+        JSONArray grammar = new JSONArray();
+        for (String w : vocab) grammar.put(w);
+        grammar.put("[unk]");
+        return grammar.toString();
+    }
+
+    // Lowercase letters and inner apostrophes only, e.g. "“don't" -> "don't"; null if nothing speakable
+    static String spoken(String norm) {
+        int a = 0, b = norm.length();
+        while (a < b && !Character.isLetter(norm.charAt(a))) a++;
+        while (b > a && !Character.isLetter(norm.charAt(b - 1))) b--;
+        if (a == b) return null;
+        for (int i = a; i < b; i++) {
+            char c = norm.charAt(i);
+            if (!Character.isLetter(c) && c != '\'' && c != '’') return null;
+        }
+        return norm.substring(a, b).replace('’', '\'').toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.aboody03.teleprompter;
+
+/*
+ * Energy-based voice activity gate. Chunks whose RMS level reaches the
+ * threshold open the gate; it stays open for a hangover period so Vosk still
+ * hears the trailing silence it needs to finalize a phrase, then closes so
+ * long pauses cost no decoding.
+ */
+public final class VoiceGate {
+    private final int threshold;
+    private final long hangNanos;
+    private long openUntil;
+    private long gated;
+
+    public VoiceGate(int threshold, int hangMs) {
+        this.threshold = threshold;
+        this.hangNanos = hangMs * 1_000_000L;
+    }
+
+    public boolean accept(byte[] pcm, int len, long nowNanos) {
+        if (threshold <= 0) return true;
+        if (rms(pcm, len) >= threshold) {
+            openUntil = nowNanos + hangNanos;
+            return true;
+        }
+        if (nowNanos - openUntil < 0) return true;
+        gated++;
+        return false;
+    }
+
+    public long getGatedChunks() { return gated; }
+
+    static int rms(byte[] pcm, int len) {
+        int n = len / 2;
+        if (n == 0) return 0;
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            int s = (short) ((pcm[2*i] & 0xFF) | (pcm[2*i+1] << 8));
+            sum += (long) s * s;
+        }
+        return (int) Math.sqrt((double) sum / n);
+    }
+}